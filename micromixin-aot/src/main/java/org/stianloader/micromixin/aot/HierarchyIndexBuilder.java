@@ -0,0 +1,126 @@
+package org.stianloader.micromixin.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.stianloader.micromixin.transform.supertypes.HierarchyIndex;
+
+/**
+ * Builds a {@link HierarchyIndex} of a set of jars. If the index file already exists, only jars whose checksum
+ * differs from the checksum recorded in the existing index are rescanned, the classes of all other jars are
+ * carried over from the existing index. The checksum of a jar is only computed if its size or last modification time
+ * differs from the recorded one, or if the jar may have been modified after the existing index was written
+ * within the resolution of the file system's timestamps.
+ *
+ * <p>Only the headers of the class files are read. Entries below META-INF (including multi-release versions)
+ * and module descriptors are not indexed.
+ */
+public class HierarchyIndexBuilder {
+
+    private static long checksum(@NotNull File jar) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(jar.toPath())) {
+            byte[] buffer = new byte[65536];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    @NotNull
+    private static List<HierarchyIndex.Entry> scan(@NotNull File jar) throws IOException {
+        List<HierarchyIndex.Entry> entries = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            for (Enumeration<? extends ZipEntry> it = zip.entries(); it.hasMoreElements();) {
+                ZipEntry entry = it.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+                    continue;
+                }
+                ClassReader reader = new ClassReader(JarClassSource.read(zip, name));
+                entries.add(new HierarchyIndex.Entry(reader.getClassName(), reader.getSuperName(), reader.getInterfaces(), (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0));
+            }
+        }
+        return entries;
+    }
+
+    @NotNull
+    private final List<File> jars;
+
+    /**
+     * Constructor.
+     *
+     * @param jars The jars to index, in order of precedence
+     */
+    public HierarchyIndexBuilder(@NotNull List<File> jars) {
+        this.jars = jars;
+    }
+
+    /**
+     * Builds the index, reusing the classes of unchanged jars from the existing index file, if any.
+     * Unreadable or outdated index files are rebuilt from scratch.
+     *
+     * @param index The index file to update. The file is replaced atomically where supported.
+     * @return The amount of jars that had to be rescanned.
+     * @throws IOException If a jar could not be read or the index could not be written
+     */
+    public int build(@NotNull File index) throws IOException {
+        Map<String, HierarchyIndex.Source> previous = new HashMap<>();
+        long indexModified = index.lastModified();
+        if (index.isFile()) {
+            try {
+                for (HierarchyIndex.Source source : HierarchyIndex.open(index).readSources()) {
+                    previous.put(source.getName(), source);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Corrupt or incompatible index, rescan everything
+                previous.clear();
+            }
+        }
+
+        List<HierarchyIndex.Source> sources = new ArrayList<>();
+        int rescanned = 0;
+        for (File jar : this.jars) {
+            String name = jar.getAbsolutePath();
+            long size = jar.length();
+            long lastModified = jar.lastModified();
+            HierarchyIndex.Source source = previous.get(name);
+            // Jars modified in the same timestamp tick as the index was written may have changed without a different timestamp
+            if (source == null || source.getSize() != size || source.getLastModified() != lastModified || lastModified >= indexModified) {
+                long checksum = HierarchyIndexBuilder.checksum(jar);
+                if (source == null || source.getChecksum() != checksum) {
+                    source = new HierarchyIndex.Source(name, checksum, size, lastModified, HierarchyIndexBuilder.scan(jar));
+                    rescanned++;
+                } else {
+                    source = new HierarchyIndex.Source(name, checksum, size, lastModified, source.getEntries());
+                }
+            }
+            sources.add(source);
+        }
+
+        File parent = index.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(index.getName(), ".tmp", parent);
+        try {
+            HierarchyIndex.write(temp, sources);
+            Files.move(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        return rescanned;
+    }
+}
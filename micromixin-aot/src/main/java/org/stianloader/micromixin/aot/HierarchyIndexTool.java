@@ -0,0 +1,70 @@
+package org.stianloader.micromixin.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point of the {@link HierarchyIndexBuilder}. The resulting index can be consumed through
+ * {@link org.stianloader.micromixin.transform.supertypes.HierarchyIndexClassWrapperProvider}.
+ */
+public class HierarchyIndexTool {
+
+    private static final String USAGE = "Usage: java -cp micromixin-aot.jar " + HierarchyIndexTool.class.getName() + " --jar <jar> [--jar <jar> ...] [--classpath <jars>] --output <index>";
+
+    public static void main(String[] args) {
+        List<File> jars = new ArrayList<>();
+        File output = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(HierarchyIndexTool.USAGE);
+                return;
+            }
+            if (i + 1 == args.length) {
+                HierarchyIndexTool.fail("Missing value for argument " + arg);
+                return;
+            }
+            String value = args[++i];
+            if (arg.equals("--jar")) {
+                jars.add(new File(value));
+            } else if (arg.equals("--classpath")) {
+                for (String path : value.split(File.pathSeparator)) {
+                    if (!path.isEmpty()) {
+                        jars.add(new File(path));
+                    }
+                }
+            } else if (arg.equals("--output")) {
+                output = new File(value);
+            } else {
+                HierarchyIndexTool.fail("Unknown argument: " + arg);
+                return;
+            }
+        }
+
+        if (jars.isEmpty() || output == null) {
+            HierarchyIndexTool.fail("At least one jar and the output must be specified");
+            return;
+        }
+
+        long start = System.nanoTime();
+        int rescanned;
+        try {
+            rescanned = new HierarchyIndexBuilder(jars).build(output);
+        } catch (IOException e) {
+            System.err.println("Unable to build the hierarchy index: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+        System.out.println("Indexed " + jars.size() + " jars (" + rescanned + " rescanned) in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+
+    private static void fail(String message) {
+        System.err.println(message);
+        System.err.println(HierarchyIndexTool.USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,159 @@
+package org.stianloader.micromixin.aot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.RawBytecodeProvider;
+import org.stianloader.micromixin.transform.supertypes.ClassHeaderWrapperProvider;
+
+/**
+ * Provides classes and resources from a set of jars. Entries of earlier jars shadow entries of later jars,
+ * the input jars are always consulted before the classpath jars.
+ *
+ * <p>The jars are accessed through {@link ZipFile}, which allows concurrent random-access reads of individual
+ * entries without having to read the jars sequentially. Class wrappers are created from the class file headers only.
+ * Instances of this class are thread-safe.
+ */
+public class JarClassSource extends ClassHeaderWrapperProvider implements RawBytecodeProvider<Void>, Closeable {
+
+    @NotNull
+    private final Map<String, ZipFile> entries = new HashMap<>();
+    @NotNull
+    private final Map<String, ZipFile> inputEntries = new LinkedHashMap<>();
+    @NotNull
+    private final List<ZipFile> jars = new ArrayList<>();
+
+    public JarClassSource(@NotNull List<File> inputs, @NotNull List<File> classpath) throws IOException {
+        try {
+            for (File input : inputs) {
+                ZipFile jar = this.open(input);
+                for (Enumeration<? extends ZipEntry> it = jar.entries(); it.hasMoreElements();) {
+                    ZipEntry entry = it.nextElement();
+                    if (!entry.isDirectory()) {
+                        this.inputEntries.putIfAbsent(entry.getName(), jar);
+                    }
+                }
+            }
+            for (File library : classpath) {
+                this.open(library);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    private ZipFile open(@NotNull File file) throws IOException {
+        ZipFile jar = new ZipFile(file);
+        this.jars.add(jar);
+        for (Enumeration<? extends ZipEntry> it = jar.entries(); it.hasMoreElements();) {
+            ZipEntry entry = it.nextElement();
+            if (!entry.isDirectory()) {
+                this.entries.putIfAbsent(entry.getName(), jar);
+            }
+        }
+        return jar;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (ZipFile jar : this.jars) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        this.jars.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    @Override
+    @NotNull
+    public byte[] getClassBytes(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+        byte[] data;
+        try {
+            data = this.getResource(internalName + ".class");
+        } catch (IOException e) {
+            throw new ClassNotFoundException("Unable to read class " + internalName, e);
+        }
+        if (data == null) {
+            throw new ClassNotFoundException(internalName);
+        }
+        return data;
+    }
+
+    @Override
+    @NotNull
+    public ClassNode getClassNode(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+        ClassNode node = new ClassNode();
+        new ClassReader(this.getClassBytes(modularityAttachment, internalName)).accept(node, 0);
+        return node;
+    }
+
+    /**
+     * Obtains the names of all non-directory entries of the input jars, in the order they were encountered.
+     *
+     * @return An unmodifiable map of all entry names to the jar the entry is read from
+     */
+    @NotNull
+    public Map<String, ZipFile> getInputEntries() {
+        return Collections.unmodifiableMap(this.inputEntries);
+    }
+
+    @Nullable
+    public byte[] getResource(@NotNull String name) throws IOException {
+        ZipFile jar = this.entries.get(name);
+        if (jar == null) {
+            return null;
+        }
+        return JarClassSource.read(jar, name);
+    }
+
+    @Override
+    @Nullable
+    public byte[] getClassBytes(@NotNull String name) throws IOException {
+        return this.getResource(name + ".class");
+    }
+
+    @NotNull
+    static byte[] read(@NotNull ZipFile jar, @NotNull String name) throws IOException {
+        ZipEntry entry = jar.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Entry " + name + " vanished from " + jar.getName());
+        }
+        long size = entry.getSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size < 0 || size > Integer.MAX_VALUE ? 4096 : (int) size);
+        try (InputStream in = jar.getInputStream(entry)) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,195 @@
+package org.stianloader.micromixin.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+import org.stianloader.micromixin.transform.supertypes.ReflectionClassWrapperProvider;
+
+/**
+ * Applies all mixins of a set of mixin configs to the classes of a set of input jars ahead of time,
+ * merging the input jars into a single pre-mixed output jar.
+ *
+ * <p>Mixin targets are transformed in parallel through {@link MixinTransformer#transformAllBytes(java.util.Collection, ExecutorService)}.
+ * Entries are written in a stable order (the manifest first, everything else sorted by name),
+ * so the same inputs always produce the same output.
+ * The mixin configs, the mixin classes listed by them as well as jar signatures, which would be invalidated
+ * by the transformation, are not copied to the output jar. Mixin classes are merged into their targets and
+ * are never loaded at runtime. Other classes within mixin packages are copied as-is.
+ */
+public class JarTransformer {
+
+    private static final Comparator<String> ENTRY_ORDER = (o1, o2) -> {
+        boolean manifest1 = o1.equalsIgnoreCase("META-INF/MANIFEST.MF");
+        boolean manifest2 = o2.equalsIgnoreCase("META-INF/MANIFEST.MF");
+        if (manifest1 != manifest2) {
+            return manifest1 ? -1 : 1;
+        }
+        return o1.compareTo(o2);
+    };
+
+    /**
+     * Obtains the internal name of the class stored in a jar entry.
+     *
+     * @param entryName The name of the entry
+     * @return The internal name, or null if the entry is not a class or is a class of a specific Java version
+     * within a multi-release jar.
+     */
+    @Nullable
+    private static String getClassName(@NotNull String entryName) {
+        if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/")) {
+            return null;
+        }
+        return entryName.substring(0, entryName.length() - 6);
+    }
+
+    private static boolean isSignatureFile(@NotNull String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        if (!upper.startsWith("META-INF/") || upper.indexOf('/', 9) != -1) {
+            return false;
+        }
+        return upper.endsWith(".SF") || upper.endsWith(".RSA") || upper.endsWith(".DSA") || upper.endsWith(".EC") || upper.startsWith("META-INF/SIG-");
+    }
+
+    @NotNull
+    private final List<File> classpath;
+    @NotNull
+    private final List<String> configs;
+    @NotNull
+    private final List<File> inputs;
+    private final int parallelism;
+
+    /**
+     * Constructor.
+     *
+     * @param inputs The jars to transform
+     * @param classpath Additional jars that are required to compute the class hierarchy, but which are not transformed
+     * @param configs The resource paths of the mixin configs to apply, which are looked up within the input and classpath jars
+     * @param parallelism The amount of worker threads to use
+     */
+    public JarTransformer(@NotNull List<File> inputs, @NotNull List<File> classpath, @NotNull List<String> configs, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+        }
+        this.inputs = inputs;
+        this.classpath = classpath;
+        this.configs = configs;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Transforms the input jars and writes the output jar. If any class could not be transformed, the output jar is not written.
+     *
+     * @param output The jar to write to. The file is replaced atomically where supported.
+     * @return The result of the transformation, keyed by the internal names of the transformed classes.
+     * @throws IOException If the jars could not be read or written, or if a mixin config is invalid or missing.
+     * @throws InterruptedException If the thread was interrupted while waiting for the transformation to complete
+     */
+    @NotNull
+    public BatchTransformationResult<byte[]> transform(@NotNull File output) throws IOException, InterruptedException {
+        try (JarClassSource source = new JarClassSource(this.inputs, this.classpath)) {
+            ClassWrapperPool pool = new ClassWrapperPool();
+            pool.addProvider(source);
+            // Fallback for JDK classes
+            pool.addProvider(new ReflectionClassWrapperProvider(null));
+            MixinTransformer<Void> transformer = new MixinTransformer<>(source, pool);
+
+            ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, (r) -> {
+                Thread thread = new Thread(r, "Micromixin AOT worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            BatchTransformationResult<byte[]> result;
+            Set<String> excluded = new HashSet<>(this.configs);
+            try {
+                for (String configName : this.configs) {
+                    byte[] config = source.getResource(configName);
+                    if (config == null) {
+                        throw new IOException("Mixin config not found: " + configName);
+                    }
+                    MixinConfig mixinConfig;
+                    try {
+                        mixinConfig = MixinConfig.fromString(new String(config, StandardCharsets.UTF_8));
+                    } catch (InvalidMixinConfigException e) {
+                        throw new IOException("Invalid mixin config: " + configName, e);
+                    }
+                    transformer.addMixin(null, mixinConfig, executor);
+                    for (String mixin : mixinConfig.mixins) {
+                        excluded.add(mixinConfig.mixinPackage + '/' + mixin + ".class");
+                    }
+                }
+                List<byte[]> targets = new ArrayList<>();
+                for (Map.Entry<String, ZipFile> entry : source.getInputEntries().entrySet()) {
+                    String className = JarTransformer.getClassName(entry.getKey());
+                    if (className != null && transformer.isMixinTarget(className)) {
+                        targets.add(JarClassSource.read(entry.getValue(), entry.getKey()));
+                    }
+                }
+                result = transformer.transformAllBytes(targets, executor);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            if (!result.hasFailures()) {
+                JarTransformer.write(source, result.getTransformed(), excluded, output);
+            }
+            return result;
+        }
+    }
+
+    private static void write(@NotNull JarClassSource source, @NotNull Map<String, byte[]> transformed, @NotNull Set<String> excluded, @NotNull File output) throws IOException {
+        List<String> names = new ArrayList<>(source.getInputEntries().keySet());
+        Collections.sort(names, JarTransformer.ENTRY_ORDER);
+
+        File parent = output.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(output.getName(), ".tmp", parent);
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(temp.toPath());
+                    ZipOutputStream out = new ZipOutputStream(fileOut)) {
+                for (String name : names) {
+                    if (excluded.contains(name) || JarTransformer.isSignatureFile(name)) {
+                        continue;
+                    }
+                    ZipFile jar = source.getInputEntries().get(name);
+                    String className = JarTransformer.getClassName(name);
+                    byte[] data = className == null ? null : transformed.get(className);
+                    if (data == null) {
+                        data = JarClassSource.read(jar, name);
+                    }
+                    ZipEntry entry = new ZipEntry(name);
+                    // Keep the timestamp of the original entry so that identical inputs yield identical outputs
+                    entry.setTime(jar.getEntry(name).getTime());
+                    out.putNextEntry(entry);
+                    out.write(data);
+                    out.closeEntry();
+                }
+            }
+            Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+}
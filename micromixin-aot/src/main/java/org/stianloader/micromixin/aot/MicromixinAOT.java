@@ -0,0 +1,94 @@
+package org.stianloader.micromixin.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+
+/**
+ * Command line entry point of the ahead-of-time transformer. See {@link JarTransformer}.
+ */
+public class MicromixinAOT {
+
+    private static final String USAGE = "Usage: micromixin-aot --input <jar> [--input <jar> ...] [--classpath <jar> ...] --config <resource> [--config <resource> ...] --output <jar> [--threads <count>]";
+
+    public static void main(String[] args) throws InterruptedException {
+        List<File> inputs = new ArrayList<>();
+        List<File> classpath = new ArrayList<>();
+        List<String> configs = new ArrayList<>();
+        File output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(MicromixinAOT.USAGE);
+                return;
+            }
+            if (i + 1 == args.length) {
+                MicromixinAOT.fail("Missing value for argument " + arg);
+                return;
+            }
+            String value = args[++i];
+            if (arg.equals("--input")) {
+                inputs.add(new File(value));
+            } else if (arg.equals("--classpath")) {
+                for (String path : value.split(File.pathSeparator)) {
+                    if (!path.isEmpty()) {
+                        classpath.add(new File(path));
+                    }
+                }
+            } else if (arg.equals("--config")) {
+                configs.add(value);
+            } else if (arg.equals("--output")) {
+                output = new File(value);
+            } else if (arg.equals("--threads")) {
+                try {
+                    threads = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    MicromixinAOT.fail("Not a number: " + value);
+                    return;
+                }
+            } else {
+                MicromixinAOT.fail("Unknown argument: " + arg);
+                return;
+            }
+        }
+
+        if (inputs.isEmpty() || configs.isEmpty() || output == null) {
+            MicromixinAOT.fail("At least one input, at least one config and the output must be specified");
+            return;
+        }
+
+        long start = System.nanoTime();
+        BatchTransformationResult<byte[]> result;
+        try {
+            result = new JarTransformer(inputs, classpath, configs, threads).transform(output);
+        } catch (IOException e) {
+            System.err.println("Unable to transform jars: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+
+        if (result.hasFailures()) {
+            System.err.println("Unable to transform " + result.getFailures().size() + " classes, the output jar was not written:");
+            for (Map.Entry<String, Throwable> failure : result.getFailures().entrySet()) {
+                System.err.println("Failed to transform " + failure.getKey() + ":");
+                failure.getValue().printStackTrace();
+            }
+            System.exit(1);
+            return;
+        }
+        System.out.println("Transformed " + result.getTransformed().size() + " classes in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+
+    private static void fail(String message) {
+        System.err.println(message);
+        System.err.println(MicromixinAOT.USAGE);
+        System.exit(2);
+    }
+}
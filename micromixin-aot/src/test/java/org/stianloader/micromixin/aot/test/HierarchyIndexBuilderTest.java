@@ -0,0 +1,74 @@
+package org.stianloader.micromixin.aot.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.stianloader.micromixin.aot.HierarchyIndexBuilder;
+import org.stianloader.micromixin.transform.supertypes.HierarchyIndex;
+
+public class HierarchyIndexBuilderTest {
+
+    private static void writeJar(File jar, String... classNames) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String className : classNames) {
+                ClassWriter writer = new ClassWriter(0);
+                writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", null);
+                writer.visitEnd();
+                out.putNextEntry(new ZipEntry(className + ".class"));
+                out.write(writer.toByteArray());
+            }
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIncrementalBuild() throws IOException {
+        File jar = this.folder.newFile("input.jar");
+        File index = new File(this.folder.getRoot(), "hierarchy.idx");
+        HierarchyIndexBuilderTest.writeJar(jar, "test/A");
+        // Timestamps that are not older than the index force the jar to be hashed again
+        long lastModified = System.currentTimeMillis() - 60_000L;
+        jar.setLastModified(lastModified);
+        HierarchyIndexBuilder builder = new HierarchyIndexBuilder(Collections.singletonList(jar));
+        assertEquals(1, builder.build(index));
+        assertEquals(0, builder.build(index));
+
+        // Same size and timestamp: The jar is not read at all, so even garbage contents go unnoticed
+        byte[] contents = Files.readAllBytes(jar.toPath());
+        byte[] garbage = new byte[contents.length];
+        Arrays.fill(garbage, (byte) 0x55);
+        Files.write(jar.toPath(), garbage);
+        jar.setLastModified(lastModified);
+        assertEquals(0, builder.build(index));
+
+        // A different timestamp with unchanged contents is hashed, but not rescanned
+        Files.write(jar.toPath(), contents);
+        jar.setLastModified(lastModified + 1_000L);
+        assertEquals(0, builder.build(index));
+        List<HierarchyIndex.Source> sources = HierarchyIndex.open(index).readSources();
+        assertEquals(lastModified + 1_000L, sources.get(0).getLastModified());
+        assertEquals(contents.length, sources.get(0).getSize());
+
+        // A different size is rescanned
+        HierarchyIndexBuilderTest.writeJar(jar, "test/A", "test/B");
+        jar.setLastModified(lastModified);
+        assertEquals(1, builder.build(index));
+        assertEquals(2, HierarchyIndex.open(index).getClassCount());
+    }
+}
@@ -0,0 +1,125 @@
+package org.stianloader.micromixin.aot.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.stianloader.micromixin.aot.JarTransformer;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+
+public class JarTransformerTest {
+
+    /**
+     * Creates a class with a single method "value()I" that returns the given constant.
+     */
+    private static ClassNode target(String name, int value) {
+        ClassNode node = new ClassNode();
+        node.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "value", "()I", null, null);
+        method.instructions.add(new InsnNode(Opcodes.ICONST_0 + value));
+        method.instructions.add(new InsnNode(Opcodes.IRETURN));
+        node.methods.add(method);
+        return node;
+    }
+
+    private static byte[] write(ClassNode node) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+
+    private static int getReturnedConstant(byte[] bytes) {
+        ClassNode node = new ClassNode();
+        new ClassReader(bytes).accept(node, 0);
+        for (MethodNode method : node.methods) {
+            if (method.name.equals("value")) {
+                for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                    if (insn.getOpcode() >= Opcodes.ICONST_0 && insn.getOpcode() <= Opcodes.ICONST_5) {
+                        return insn.getOpcode() - Opcodes.ICONST_0;
+                    }
+                }
+            }
+        }
+        throw new AssertionError("No constant returned by " + node.name);
+    }
+
+    private static byte[] read(ZipFile jar, String name) throws IOException {
+        try (InputStream in = jar.getInputStream(jar.getEntry(name))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException, InterruptedException {
+        ClassNode mixin = JarTransformerTest.target("test/mixin/MixinTarget", 2);
+        AnnotationNode mixinAnnotation = new AnnotationNode("Lorg/spongepowered/asm/mixin/Mixin;");
+        mixinAnnotation.visit("targets", Arrays.asList("test/Target"));
+        mixin.invisibleAnnotations = Arrays.asList(mixinAnnotation);
+        byte[] untouched = JarTransformerTest.write(JarTransformerTest.target("test/Untouched", 3));
+
+        File input = this.folder.newFile("input.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+            out.putNextEntry(new ZipEntry("test/mixins.json"));
+            out.write("{\"package\": \"test.mixin\", \"mixins\": [\"MixinTarget\"]}".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("test/Untouched.class"));
+            out.write(untouched);
+            out.putNextEntry(new ZipEntry("test/mixin/MixinTarget.class"));
+            out.write(JarTransformerTest.write(mixin));
+            out.putNextEntry(new ZipEntry("test/Target.class"));
+            out.write(JarTransformerTest.write(JarTransformerTest.target("test/Target", 1)));
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        File output = new File(this.folder.getRoot(), "output.jar");
+        JarTransformer transformer = new JarTransformer(Collections.singletonList(input), Collections.<File>emptyList(), Collections.singletonList("test/mixins.json"), 2);
+        BatchTransformationResult<byte[]> result = transformer.transform(output);
+        assertFalse(result.hasFailures());
+        assertEquals(Collections.singleton("test/Target"), result.getTransformed().keySet());
+
+        try (ZipFile jar = new ZipFile(output)) {
+            List<String> names = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                names.add(entries.nextElement().getName());
+            }
+            // The mixin config and the mixin class are stripped, the manifest comes first
+            assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "test/Target.class", "test/Untouched.class"), names);
+            assertEquals(2, JarTransformerTest.getReturnedConstant(JarTransformerTest.read(jar, "test/Target.class")));
+            assertArrayEquals(untouched, JarTransformerTest.read(jar, "test/Untouched.class"));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.stianloader.micromixin.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.RawBytecodeProvider;
+import org.stianloader.micromixin.transform.supertypes.ASMClassWrapperProvider;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * Shared setup code of the benchmarks. Classes are read from the class files on the benchmark classpath,
+ * which means that the fixture classes are the exact class files produced by javac.
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * A {@link RawBytecodeProvider} reading class files from the classpath of the benchmarks.
+     */
+    public static final class ClasspathBytecodeProvider implements RawBytecodeProvider<Void> {
+        @Override
+        @NotNull
+        public byte[] getClassBytes(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+            byte[] data = BenchmarkFixtures.readResource(internalName + ".class");
+            if (data == null) {
+                throw new ClassNotFoundException(internalName);
+            }
+            return data;
+        }
+
+        @Override
+        @NotNull
+        public ClassNode getClassNode(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+            ClassNode node = new ClassNode();
+            new ClassReader(this.getClassBytes(modularityAttachment, internalName)).accept(node, 0);
+            return node;
+        }
+    }
+
+    public static final String MIXIN_CONFIG = "micromixin-jmh.mixins.json";
+    public static final String BENCH_TARGET = "org/stianloader/micromixin/jmh/fixtures/BenchTarget";
+    public static final String BENCH_TARGET_MIXIN = "org/stianloader/micromixin/jmh/fixtures/mixins/BenchTargetMixin";
+
+    @NotNull
+    public static ClassWrapperPool newPool(@NotNull final RawBytecodeProvider<Void> provider) {
+        return new ClassWrapperPool().addProvider(new ASMClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassNode getNode(@NotNull String name) {
+                try {
+                    return provider.getClassNode(null, name);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a transformer with the given mixin configs registered.
+     *
+     * @param provider The provider of the mixins and of the classes of the class hierarchy
+     * @param configs The classpath resources of the mixin configs
+     * @return The transformer
+     */
+    @NotNull
+    public static MixinTransformer<Void> newTransformer(@NotNull RawBytecodeProvider<Void> provider, @NotNull String... configs) {
+        MixinTransformer<Void> transformer = new MixinTransformer<Void>(provider, BenchmarkFixtures.newPool(provider));
+        for (String config : configs) {
+            byte[] data = BenchmarkFixtures.readResource(config);
+            if (data == null) {
+                throw new IllegalStateException("Mixin config not found: " + config);
+            }
+            try {
+                transformer.addMixin(null, MixinConfig.fromString(new String(data, StandardCharsets.UTF_8)));
+            } catch (InvalidMixinConfigException e) {
+                throw new IllegalStateException("Invalid mixin config: " + config, e);
+            }
+        }
+        return transformer;
+    }
+
+    @NotNull
+    public static ClassNode readNode(@NotNull byte[] data) {
+        ClassNode node = new ClassNode();
+        new ClassReader(data).accept(node, 0);
+        return node;
+    }
+
+    @Nullable
+    public static byte[] readResource(@NotNull String name) {
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read resource " + name, e);
+        }
+    }
+
+    private BenchmarkFixtures() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,116 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapper;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperProvider;
+
+/**
+ * Measures the assignability checks of {@link ClassWrapperPool} on a synthetic hierarchy of configurable depth.
+ * These checks are performed by the verifier used for capturing locals and by frame computation.
+ *
+ * <p>The hierarchy consists of a chain of classes "C0" to "C(depth-1)", where each class extends its predecessor
+ * and every fourth class additionally implements an interface of the interface chain "I0" to "I(depth/4)".
+ * A second chain of classes "S0" to "S(depth/2)" branches off from the middle of the first chain.
+ * All wrappers are resolved during setup, so only the hierarchy walks are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassWrapperPoolBenchmark {
+
+    private static class SyntheticHierarchyProvider implements ClassWrapperProvider {
+        private final int depth;
+
+        public SyntheticHierarchyProvider(int depth) {
+            this.depth = depth;
+        }
+
+        @Override
+        @Nullable
+        public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+            if (!name.startsWith("bench/")) {
+                return null;
+            }
+            char kind = name.charAt(6);
+            int index = Integer.parseInt(name.substring(7));
+            if (kind == 'I') {
+                String[] interfaces = index == 0 ? new String[0] : new String[] {"bench/I" + (index - 1)};
+                return new ClassWrapper(name, "java/lang/Object", interfaces, true, pool);
+            } else if (kind == 'C') {
+                String superName = index == 0 ? "java/lang/Object" : "bench/C" + (index - 1);
+                String[] interfaces = index % 4 == 0 ? new String[] {"bench/I" + (index / 4)} : new String[0];
+                return new ClassWrapper(name, superName, interfaces, false, pool);
+            } else if (kind == 'S') {
+                String superName = index == 0 ? "bench/C" + (this.depth / 2) : "bench/S" + (index - 1);
+                return new ClassWrapper(name, superName, new String[0], false, pool);
+            }
+            return null;
+        }
+    }
+
+    @Param({"4", "16", "64"})
+    public int depth;
+
+    private ClassWrapper deepClass;
+    private ClassWrapper deepSibling;
+    private ClassWrapper rootClass;
+    private ClassWrapper rootInterface;
+    private ClassWrapper objectClass;
+    private ClassWrapperPool pool;
+
+    @Setup
+    public void setup() {
+        this.pool = new ClassWrapperPool().addProvider(new SyntheticHierarchyProvider(this.depth));
+        this.rootClass = this.pool.get("bench/C0");
+        this.rootInterface = this.pool.get("bench/I0");
+        this.deepClass = this.pool.get("bench/C" + (this.depth - 1));
+        this.deepSibling = this.pool.get("bench/S" + (this.depth / 2));
+        this.objectClass = this.pool.get("java/lang/Object");
+        // Resolve the entire hierarchy ahead of time
+        this.pool.getCommonSuperClass(this.deepClass, this.deepSibling);
+        this.pool.canAssign(this.rootInterface, this.deepClass);
+    }
+
+    @Benchmark
+    public boolean canAssignClass() {
+        return this.pool.canAssign(this.rootClass, this.deepClass);
+    }
+
+    @Benchmark
+    public boolean canAssignInterface() {
+        return this.pool.canAssign(this.rootInterface, this.deepClass);
+    }
+
+    @Benchmark
+    public boolean canAssignUnrelated() {
+        return this.pool.canAssign(this.deepSibling, this.deepClass);
+    }
+
+    @Benchmark
+    public ClassWrapper getCommonSuperClass() {
+        return this.pool.getCommonSuperClass(this.deepClass, this.deepSibling);
+    }
+
+    @Benchmark
+    public ClassWrapper getCommonSuperClassObject() {
+        return this.pool.getCommonSuperClass(this.deepClass, this.objectClass);
+    }
+}
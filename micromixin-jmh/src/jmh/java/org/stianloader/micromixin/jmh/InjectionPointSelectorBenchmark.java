@@ -0,0 +1,86 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures.ClasspathBytecodeProvider;
+import org.stianloader.micromixin.transform.SimpleRemapper;
+import org.stianloader.micromixin.transform.api.InjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.selectors.StringSelector;
+import org.stianloader.micromixin.transform.internal.selectors.inject.ConstantInjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.selectors.inject.HeadInjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.selectors.inject.InvokeInjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.selectors.inject.ReturnInjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.selectors.inject.TailInjectionPointSelector;
+
+/**
+ * Measures {@link InjectionPointSelector#getMatchedInstructions(MethodNode, org.stianloader.micromixin.transform.api.SlicedInjectionPointSelector, org.stianloader.micromixin.transform.api.SlicedInjectionPointSelector, SimpleRemapper, StringBuilder)}
+ * of every builtin injection point on a method with loops, branches, invocations and constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionPointSelectorBenchmark {
+
+    @Param({"HEAD", "RETURN", "TAIL", "INVOKE", "CONSTANT"})
+    public String injectionPoint;
+
+    private MethodNode method;
+    private SimpleRemapper remapper;
+    private InjectionPointSelector selector;
+    private StringBuilder sharedBuilder;
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        for (MethodNode method : new ClasspathBytecodeProvider().getClassNode(null, BenchmarkFixtures.BENCH_TARGET).methods) {
+            if (method.name.equals("compute")) {
+                this.method = method;
+            }
+        }
+        if (this.method == null) {
+            throw new IllegalStateException("compute method not found");
+        }
+        this.remapper = new SimpleRemapper();
+        this.sharedBuilder = new StringBuilder();
+
+        if (this.injectionPoint.equals("HEAD")) {
+            this.selector = HeadInjectionPointSelector.INSTANCE;
+        } else if (this.injectionPoint.equals("RETURN")) {
+            this.selector = ReturnInjectionPointSelector.INSTANCE;
+        } else if (this.injectionPoint.equals("TAIL")) {
+            this.selector = TailInjectionPointSelector.INSTANCE;
+        } else if (this.injectionPoint.equals("INVOKE")) {
+            this.selector = InvokeInjectionPointSelector.PROVIDER.create(null, new StringSelector("L" + BenchmarkFixtures.BENCH_TARGET + ";log(Ljava/lang/String;)V"));
+        } else if (this.injectionPoint.equals("CONSTANT")) {
+            this.selector = ConstantInjectionPointSelector.PROVIDER.create(Arrays.asList("intValue=31"), null);
+        } else {
+            throw new IllegalArgumentException("Unknown injection point: " + this.injectionPoint);
+        }
+
+        if (this.getMatchedInstructions().isEmpty()) {
+            throw new IllegalStateException("The " + this.injectionPoint + " injection point does not match any instruction");
+        }
+    }
+
+    @Benchmark
+    public Collection<? extends AbstractInsnNode> getMatchedInstructions() {
+        return this.selector.getMatchedInstructions(this.method, null, null, this.remapper, this.sharedBuilder);
+    }
+}
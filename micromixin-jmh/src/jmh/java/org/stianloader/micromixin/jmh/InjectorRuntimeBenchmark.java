@@ -0,0 +1,145 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures.ClasspathBytecodeProvider;
+import org.stianloader.micromixin.jmh.fixtures.InjectorShapes;
+
+/**
+ * Measures the runtime overhead the code generated by the individual injectors adds to the patched method.
+ * Each benchmark is run against the {@code unpatched} target as a baseline and against the {@code patched} target,
+ * both of which are defined from the same class file in isolated class loaders.
+ * The difference in throughput and in allocations per call (as reported by the GC profiler) is the cost of the injector.
+ *
+ * <p>Note that the handler bodies are not entirely free either, the handlers are however kept trivial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectorRuntimeBenchmark {
+
+    private static final String TARGET = "org.stianloader.micromixin.jmh.fixtures.runtime.InjectorShapesTarget";
+
+    @Param({"unpatched", "patched"})
+    public String variant;
+
+    private InjectorShapes target;
+    private int value;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        TransformingClassLoader loader;
+        if (this.variant.equals("patched")) {
+            loader = new TransformingClassLoader("org.stianloader.micromixin.jmh.fixtures.runtime.", BenchmarkFixtures.newTransformer(new ClasspathBytecodeProvider(), BenchmarkFixtures.MIXIN_CONFIG));
+        } else if (this.variant.equals("unpatched")) {
+            loader = new TransformingClassLoader("org.stianloader.micromixin.jmh.fixtures.runtime.", null);
+        } else {
+            throw new IllegalArgumentException("Unknown variant: " + this.variant);
+        }
+        this.target = (InjectorShapes) loader.loadClass(InjectorRuntimeBenchmark.TARGET).getConstructor().newInstance();
+        this.value = 42;
+        boolean patched = this.target.modifyReturnValue(this.value) != this.value + 1;
+        if (patched != this.variant.equals("patched")) {
+            throw new IllegalStateException("The target was expected to be " + this.variant);
+        }
+    }
+
+    @Benchmark
+    public int injectHeadCancellable() {
+        return this.target.injectHeadCancellable(this.value);
+    }
+
+    @Benchmark
+    public void injectVoid() {
+        this.target.injectVoid(this.value);
+    }
+
+    @Benchmark
+    public void injectVoidCancellable() {
+        this.target.injectVoidCancellable(this.value);
+    }
+
+    @Benchmark
+    public int modifyArgFirst() {
+        return this.target.modifyArgFirst(this.value);
+    }
+
+    @Benchmark
+    public int modifyArgLast() {
+        return this.target.modifyArgLast(this.value);
+    }
+
+    @Benchmark
+    public int modifyArgMiddle() {
+        return this.target.modifyArgMiddle(this.value);
+    }
+
+    @Benchmark
+    public int modifyConstant() {
+        return this.target.modifyConstant(this.value);
+    }
+
+    @Benchmark
+    public int modifyReturnValue() {
+        return this.target.modifyReturnValue(this.value);
+    }
+
+    @Benchmark
+    public int redirect() {
+        return this.target.redirect(this.value);
+    }
+
+    @Benchmark
+    public boolean returnBoolean() {
+        return this.target.returnBoolean(this.value);
+    }
+
+    @Benchmark
+    public byte returnByte() {
+        return this.target.returnByte(this.value);
+    }
+
+    @Benchmark
+    public char returnChar() {
+        return this.target.returnChar(this.value);
+    }
+
+    @Benchmark
+    public double returnDouble() {
+        return this.target.returnDouble(this.value);
+    }
+
+    @Benchmark
+    public float returnFloat() {
+        return this.target.returnFloat(this.value);
+    }
+
+    @Benchmark
+    public int returnInt() {
+        return this.target.returnInt(this.value);
+    }
+
+    @Benchmark
+    public long returnLong() {
+        return this.target.returnLong(this.value);
+    }
+
+    @Benchmark
+    public short returnShort() {
+        return this.target.returnShort(this.value);
+    }
+}
@@ -0,0 +1,69 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures.ClasspathBytecodeProvider;
+import org.stianloader.micromixin.transform.internal.util.locals.LocalCaptureResult;
+import org.stianloader.micromixin.transform.internal.util.locals.LocalsCapture;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * Measures {@link LocalsCapture#captureLocals(ClassNode, MethodNode, AbstractInsnNode, ClassWrapperPool)},
+ * which runs a full data flow analysis of the target method for every injection point that captures locals.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalsCaptureBenchmark {
+
+    private AbstractInsnNode inspectionTarget;
+    private MethodNode method;
+    private ClassNode owner;
+    private ClassWrapperPool pool;
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        ClasspathBytecodeProvider provider = new ClasspathBytecodeProvider();
+        this.pool = BenchmarkFixtures.newPool(provider);
+        this.owner = provider.getClassNode(null, BenchmarkFixtures.BENCH_TARGET);
+        for (MethodNode method : this.owner.methods) {
+            if (method.name.equals("compute")) {
+                this.method = method;
+            }
+        }
+        if (this.method == null) {
+            throw new IllegalStateException("compute method not found");
+        }
+        for (AbstractInsnNode insn = this.method.instructions.getLast(); insn != null; insn = insn.getPrevious()) {
+            if (insn.getOpcode() == Opcodes.IRETURN) {
+                this.inspectionTarget = insn;
+                break;
+            }
+        }
+        if (this.inspectionTarget == null) {
+            throw new IllegalStateException("No return instruction found");
+        }
+    }
+
+    @Benchmark
+    public LocalCaptureResult captureLocals() {
+        return LocalsCapture.captureLocals(this.owner, this.method, this.inspectionTarget, this.pool);
+    }
+}
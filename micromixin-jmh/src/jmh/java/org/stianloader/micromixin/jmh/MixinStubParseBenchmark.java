@@ -0,0 +1,47 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures.ClasspathBytecodeProvider;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.internal.MixinStub;
+
+/**
+ * Measures the parsing of a mixin class into a {@link MixinStub}, which happens once per mixin
+ * when the mixin config is registered (or when the mixin is first needed if mixins are parsed lazily).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixinStubParseBenchmark {
+
+    private ClassNode mixinNode;
+    private MixinTransformer<Void> transformer;
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        ClasspathBytecodeProvider provider = new ClasspathBytecodeProvider();
+        // Parsing does not modify the mixin node, so a single node can be reused across invocations
+        this.mixinNode = provider.getClassNode(null, BenchmarkFixtures.BENCH_TARGET_MIXIN);
+        this.transformer = BenchmarkFixtures.newTransformer(provider);
+    }
+
+    @Benchmark
+    public MixinStub parse() {
+        return MixinStub.parse(0, this.mixinNode, this.transformer, new StringBuilder());
+    }
+}
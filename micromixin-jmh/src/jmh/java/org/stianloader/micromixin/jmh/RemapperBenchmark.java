@@ -0,0 +1,56 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.transform.SimpleRemapper;
+
+/**
+ * Measures the descriptor and signature remapping of {@link SimpleRemapper}, which is performed for
+ * every member reference that is copied from a mixin into a target.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemapperBenchmark {
+
+    private static final String METHOD_DESCRIPTOR = "(Lcom/example/mixin/FooMixin;[[ILjava/lang/String;JLcom/example/Bar;D)Lcom/example/mixin/FooMixin;";
+    private static final String SIGNATURE = "<T:Lcom/example/mixin/FooMixin;>(Ljava/util/Map<Ljava/lang/String;Ljava/util/List<+Lcom/example/Bar;>;>;TT;)Ljava/util/Set<Lcom/example/mixin/FooMixin$Inner<TT;>;>;";
+
+    private SimpleRemapper remapper;
+    private StringBuilder sharedBuilder;
+
+    @Setup
+    public void setup() {
+        this.remapper = new SimpleRemapper();
+        this.remapper.remapClassName("com/example/mixin/FooMixin", "com/example/Foo");
+        this.remapper.remapClassName("com/example/mixin/FooMixin$Inner", "com/example/Foo$Inner");
+        this.remapper.remapClassName("com/example/Bar", "com/example/Baz");
+        this.sharedBuilder = new StringBuilder();
+    }
+
+    @Benchmark
+    public String remapMethodDescriptor() {
+        return this.remapper.getRemappedMethodDescriptor(RemapperBenchmark.METHOD_DESCRIPTOR, this.sharedBuilder);
+    }
+
+    @Benchmark
+    public String remapSignature() {
+        StringBuilder out = this.sharedBuilder;
+        out.setLength(0);
+        this.remapper.remapSignature(RemapperBenchmark.SIGNATURE, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures.ClasspathBytecodeProvider;
+import org.stianloader.micromixin.transform.MixinTransformer;
+
+/**
+ * Measures {@link MixinTransformer#transform(ClassNode)} and {@link MixinTransformer#transform(Object, String, byte[])}
+ * on a target that has a representative mix of injectors applied to it.
+ *
+ * <p>As the transformation modifies the target in place, each invocation has to read the target anew.
+ * {@link #readOnly()} measures this overhead on its own so that it can be subtracted from {@link #transformNode()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    private byte[] target;
+    private MixinTransformer<Void> transformer;
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        ClasspathBytecodeProvider provider = new ClasspathBytecodeProvider();
+        this.target = provider.getClassBytes(null, BenchmarkFixtures.BENCH_TARGET);
+        this.transformer = BenchmarkFixtures.newTransformer(provider, BenchmarkFixtures.MIXIN_CONFIG);
+    }
+
+    @Benchmark
+    public ClassNode readOnly() {
+        return BenchmarkFixtures.readNode(this.target);
+    }
+
+    @Benchmark
+    public byte[] transformBytes() {
+        return this.transformer.transform(null, BenchmarkFixtures.BENCH_TARGET, this.target);
+    }
+
+    @Benchmark
+    public ClassNode transformNode() {
+        ClassNode node = BenchmarkFixtures.readNode(this.target);
+        this.transformer.transform(node);
+        return node;
+    }
+}
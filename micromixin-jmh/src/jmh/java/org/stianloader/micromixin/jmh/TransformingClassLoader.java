@@ -0,0 +1,61 @@
+package org.stianloader.micromixin.jmh;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.stianloader.micromixin.transform.MixinTransformer;
+
+/**
+ * Defines the classes within a package from the class files on the benchmark classpath, optionally passing
+ * them through a {@link MixinTransformer} first. All other classes are delegated to the parent class loader,
+ * which allows loading a patched and an unpatched copy of the same classes side by side.
+ */
+public class TransformingClassLoader extends ClassLoader {
+
+    @NotNull
+    private final String packagePrefix;
+    @Nullable
+    private final MixinTransformer<Void> transformer;
+
+    /**
+     * Constructor.
+     *
+     * @param packagePrefix The prefix of the binary names of the classes to define within this class loader, for example "com.example."
+     * @param transformer The transformer to apply to the classes, or null to define the classes as-is.
+     */
+    public TransformingClassLoader(@NotNull String packagePrefix, @Nullable MixinTransformer<Void> transformer) {
+        super(TransformingClassLoader.class.getClassLoader());
+        this.packagePrefix = packagePrefix;
+        this.transformer = transformer;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(this.packagePrefix)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (this.getClassLoadingLock(name)) {
+            Class<?> type = this.findLoadedClass(name);
+            if (type == null) {
+                type = this.findClass(name);
+            }
+            if (resolve) {
+                this.resolveClass(type);
+            }
+            return type;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String internalName = name.replace('.', '/');
+        byte[] data = BenchmarkFixtures.readResource(internalName + ".class");
+        if (data == null) {
+            throw new ClassNotFoundException(name);
+        }
+        MixinTransformer<Void> transformer = this.transformer;
+        if (transformer != null) {
+            data = transformer.transform(null, internalName, data);
+        }
+        return this.defineClass(name, data, 0, data.length);
+    }
+}
@@ -0,0 +1,61 @@
+package org.stianloader.micromixin.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stianloader.micromixin.jmh.workload.Workload;
+import org.stianloader.micromixin.jmh.workload.WorkloadGenerator;
+import org.stianloader.micromixin.jmh.workload.WorkloadRunner;
+import org.stianloader.micromixin.jmh.workload.WorkloadShape;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+import org.stianloader.micromixin.transform.MixinTransformer;
+
+/**
+ * Measures the registration of all mixins and the transformation of all targets of a synthetic workload
+ * at different scales. Each invocation processes the entire workload, so the score divided by the amount of
+ * targets should stay roughly constant across the scales. See {@link WorkloadRunner} for a standalone driver
+ * that additionally reports the retained heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkloadScalingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean sliced;
+
+    @Param({"1000", "4000", "16000"})
+    public int targets;
+
+    private MixinTransformer<Void> transformer;
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadGenerator.generate(new WorkloadShape(this.targets, this.targets / 10, 4, 8, 2, 4, this.sliced));
+        this.transformer = this.workload.createTransformer();
+    }
+
+    @Benchmark
+    public MixinTransformer<Void> register() {
+        return this.workload.createTransformer();
+    }
+
+    @Benchmark
+    public BatchTransformationResult<byte[]> transformAll() throws InterruptedException {
+        return this.transformer.transformAllBytes(this.workload.getTargetClassFiles(), 1);
+    }
+}
@@ -0,0 +1,62 @@
+package org.stianloader.micromixin.jmh.fixtures;
+
+/**
+ * A representative mixin target, containing loops, branches, invocations and constants.
+ * The class is never executed, it only serves as input to the transformer.
+ */
+public class BenchTarget {
+
+    private int counter;
+    private final StringBuilder log = new StringBuilder();
+
+    public int compute(int iterations) {
+        int sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            int value = this.helper(i) * 31;
+            if ((value & 1) == 0) {
+                sum += value;
+            } else {
+                sum -= value >> 2;
+            }
+            if (sum > 100_000) {
+                sum %= 4096;
+                this.log("Overflow at " + i);
+            }
+        }
+        String result = "Sum: " + sum;
+        this.log(result);
+        return sum;
+    }
+
+    public String describe(long id, double weight, Object payload) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(id).append(':').append(weight);
+        if (payload != null) {
+            builder.append('/').append(payload);
+        }
+        return builder.toString();
+    }
+
+    private int helper(int value) {
+        return value ^ 0x5F;
+    }
+
+    public void log(String message) {
+        this.counter++;
+        this.log.append(message).append('\n');
+    }
+
+    public int sumArray(int[] values, int offset, int length) {
+        int sum = 0;
+        long checksum = 17L;
+        for (int i = offset; i < offset + length; i++) {
+            int value = values[i];
+            sum += value;
+            checksum = checksum * 31 + value;
+        }
+        if (checksum == 0L) {
+            return -1;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,44 @@
+package org.stianloader.micromixin.jmh.fixtures;
+
+/**
+ * The methods of {@link org.stianloader.micromixin.jmh.fixtures.runtime.InjectorShapesTarget}, each of which
+ * has exactly one injector applied to it by {@link org.stianloader.micromixin.jmh.fixtures.mixins.InjectorShapesMixin}.
+ * The interface is shared between the class loaders that define the patched and the unpatched target so that
+ * the benchmarks can invoke both variants directly.
+ */
+public interface InjectorShapes {
+
+    void injectVoid(int value);
+
+    void injectVoidCancellable(int value);
+
+    int injectHeadCancellable(int value);
+
+    boolean returnBoolean(int value);
+
+    byte returnByte(int value);
+
+    char returnChar(int value);
+
+    short returnShort(int value);
+
+    int returnInt(int value);
+
+    long returnLong(int value);
+
+    float returnFloat(int value);
+
+    double returnDouble(int value);
+
+    int redirect(int value);
+
+    int modifyArgFirst(int value);
+
+    int modifyArgMiddle(int value);
+
+    int modifyArgLast(int value);
+
+    int modifyConstant(int value);
+
+    int modifyReturnValue(int value);
+}
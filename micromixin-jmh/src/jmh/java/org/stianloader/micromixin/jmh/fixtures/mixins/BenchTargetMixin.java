@@ -0,0 +1,66 @@
+package org.stianloader.micromixin.jmh.fixtures.mixins;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Constant;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
+import org.spongepowered.asm.mixin.injection.ModifyConstant;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.stianloader.micromixin.jmh.fixtures.BenchTarget;
+
+@Mixin(BenchTarget.class)
+public class BenchTargetMixin {
+
+    @Shadow
+    private int counter;
+
+    @Shadow
+    public void log(String message) {
+        throw new AssertionError();
+    }
+
+    @Inject(method = "compute", at = @At("HEAD"), cancellable = true)
+    private void onComputeHead(int iterations, CallbackInfoReturnable<Integer> cir) {
+        if (iterations < 0) {
+            cir.setReturnValue(0);
+        }
+    }
+
+    @Inject(method = "compute", at = @At("RETURN"))
+    private void onComputeReturn(int iterations, CallbackInfoReturnable<Integer> cir) {
+        this.counter += cir.getReturnValue();
+    }
+
+    @Redirect(method = "compute", at = @At(value = "INVOKE", target = "Lorg/stianloader/micromixin/jmh/fixtures/BenchTarget;log(Ljava/lang/String;)V"))
+    private void redirectLog(BenchTarget target, String message) {
+        this.log("[redirected] " + message);
+    }
+
+    @ModifyConstant(method = "compute", constant = @Constant(intValue = 31))
+    private int modifyMultiplier(int multiplier) {
+        return multiplier + 2;
+    }
+
+    @ModifyArg(method = "describe", at = @At(value = "INVOKE", target = "Ljava/lang/StringBuilder;append(J)Ljava/lang/StringBuilder;"))
+    private long modifyId(long id) {
+        return id & 0xFFFF;
+    }
+
+    @Inject(method = "sumArray", at = @At("TAIL"))
+    private void onSumArrayTail(int[] values, int offset, int length, CallbackInfoReturnable<Integer> cir) {
+        this.counter++;
+    }
+
+    /**
+     * @author micromixin
+     * @reason Benchmark fixture
+     */
+    @Overwrite
+    private int helper(int value) {
+        return value ^ 0x3A;
+    }
+}
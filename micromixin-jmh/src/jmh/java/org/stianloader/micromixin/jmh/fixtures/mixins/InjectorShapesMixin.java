@@ -0,0 +1,116 @@
+package org.stianloader.micromixin.jmh.fixtures.mixins;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Constant;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
+import org.spongepowered.asm.mixin.injection.ModifyConstant;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.stianloader.micromixin.jmh.fixtures.runtime.InjectorShapesTarget;
+
+import com.llamalad7.mixinextras.injector.ModifyReturnValue;
+
+/**
+ * Applies exactly one injector to each method of {@link InjectorShapesTarget}. The handlers do as little
+ * work as possible while still having an observable effect, so that the benchmarks measure the overhead
+ * of the injector shape itself.
+ */
+@Mixin(InjectorShapesTarget.class)
+public class InjectorShapesMixin {
+
+    @Shadow
+    public int state;
+
+    @Inject(method = "injectVoid", at = @At("HEAD"))
+    private void onInjectVoid(int value, CallbackInfo ci) {
+        this.state++;
+    }
+
+    @Inject(method = "injectVoidCancellable", at = @At("HEAD"), cancellable = true)
+    private void onInjectVoidCancellable(int value, CallbackInfo ci) {
+        if (value < 0) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "injectHeadCancellable", at = @At("HEAD"), cancellable = true)
+    private void onInjectHeadCancellable(int value, CallbackInfoReturnable<Integer> cir) {
+        if (value < 0) {
+            cir.setReturnValue(0);
+        }
+    }
+
+    @Inject(method = "returnBoolean", at = @At("RETURN"))
+    private void onReturnBoolean(int value, CallbackInfoReturnable<Boolean> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnByte", at = @At("RETURN"))
+    private void onReturnByte(int value, CallbackInfoReturnable<Byte> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnChar", at = @At("RETURN"))
+    private void onReturnChar(int value, CallbackInfoReturnable<Character> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnShort", at = @At("RETURN"))
+    private void onReturnShort(int value, CallbackInfoReturnable<Short> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnInt", at = @At("RETURN"))
+    private void onReturnInt(int value, CallbackInfoReturnable<Integer> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnLong", at = @At("RETURN"))
+    private void onReturnLong(int value, CallbackInfoReturnable<Long> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnFloat", at = @At("RETURN"))
+    private void onReturnFloat(int value, CallbackInfoReturnable<Float> cir) {
+        this.state++;
+    }
+
+    @Inject(method = "returnDouble", at = @At("RETURN"))
+    private void onReturnDouble(int value, CallbackInfoReturnable<Double> cir) {
+        this.state++;
+    }
+
+    @Redirect(method = "redirect", at = @At(value = "INVOKE", target = "Lorg/stianloader/micromixin/jmh/fixtures/runtime/InjectorShapesTarget;callee(I)I"))
+    private int redirectCallee(InjectorShapesTarget target, int value) {
+        return value * 5;
+    }
+
+    @ModifyArg(method = "modifyArgFirst", at = @At(value = "INVOKE", target = "Lorg/stianloader/micromixin/jmh/fixtures/runtime/InjectorShapesTarget;combine(IJID)I"), index = 0)
+    private int modifyFirstArg(int a) {
+        return a + 1;
+    }
+
+    @ModifyArg(method = "modifyArgMiddle", at = @At(value = "INVOKE", target = "Lorg/stianloader/micromixin/jmh/fixtures/runtime/InjectorShapesTarget;combine(IJID)I"), index = 1)
+    private long modifyMiddleArg(long b) {
+        return b + 1;
+    }
+
+    @ModifyArg(method = "modifyArgLast", at = @At(value = "INVOKE", target = "Lorg/stianloader/micromixin/jmh/fixtures/runtime/InjectorShapesTarget;combine(IJID)I"), index = 3)
+    private double modifyLastArg(double d) {
+        return d + 1;
+    }
+
+    @ModifyConstant(method = "modifyConstant", constant = @Constant(intValue = 31))
+    private int modifyMultiplier(int multiplier) {
+        return multiplier + 2;
+    }
+
+    @ModifyReturnValue(method = "modifyReturnValue", at = @At("RETURN"))
+    private int modifyReturnValue(int original) {
+        return original + 1;
+    }
+}
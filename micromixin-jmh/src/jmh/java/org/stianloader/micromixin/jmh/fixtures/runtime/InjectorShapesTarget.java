@@ -0,0 +1,105 @@
+package org.stianloader.micromixin.jmh.fixtures.runtime;
+
+import org.stianloader.micromixin.jmh.fixtures.InjectorShapes;
+
+/**
+ * The target of the runtime overhead benchmarks. The method bodies are deliberately trivial so that
+ * the cost of the injected code dominates.
+ */
+public class InjectorShapesTarget implements InjectorShapes {
+
+    public int state;
+
+    @Override
+    public void injectVoid(int value) {
+        this.state += value;
+    }
+
+    @Override
+    public void injectVoidCancellable(int value) {
+        this.state += value;
+    }
+
+    @Override
+    public int injectHeadCancellable(int value) {
+        return value + 1;
+    }
+
+    @Override
+    public boolean returnBoolean(int value) {
+        return (value & 1) == 0;
+    }
+
+    @Override
+    public byte returnByte(int value) {
+        return (byte) value;
+    }
+
+    @Override
+    public char returnChar(int value) {
+        return (char) value;
+    }
+
+    @Override
+    public short returnShort(int value) {
+        return (short) value;
+    }
+
+    @Override
+    public int returnInt(int value) {
+        return value + 1;
+    }
+
+    @Override
+    public long returnLong(int value) {
+        return value + 1L;
+    }
+
+    @Override
+    public float returnFloat(int value) {
+        return value + 0.5F;
+    }
+
+    @Override
+    public double returnDouble(int value) {
+        return value + 0.5D;
+    }
+
+    @Override
+    public int redirect(int value) {
+        return this.callee(value);
+    }
+
+    private int callee(int value) {
+        return value * 3;
+    }
+
+    @Override
+    public int modifyArgFirst(int value) {
+        return this.combine(value, 2L, value, 4D);
+    }
+
+    @Override
+    public int modifyArgMiddle(int value) {
+        return this.combine(value, 2L, value, 4D);
+    }
+
+    @Override
+    public int modifyArgLast(int value) {
+        return this.combine(value, 2L, value, 4D);
+    }
+
+    private int combine(int a, long b, int c, double d) {
+        return (int) (a + b + c + d);
+    }
+
+    @Override
+    public int modifyConstant(int value) {
+        return value * 31;
+    }
+
+    @Override
+    public int modifyReturnValue(int value) {
+        return value + 1;
+    }
+}
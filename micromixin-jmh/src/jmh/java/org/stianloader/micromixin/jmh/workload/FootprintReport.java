@@ -0,0 +1,156 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.internal.MixinStub;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * Measures the heap footprint of a {@link MixinTransformer} after a synthetic workload of N mixins was registered
+ * and applied, broken down by structure. Sizes are computed by walking the object graph, object sizes are obtained using JOL.
+ *
+ * <p>The structures are measured in the order they are reported. Each object is accounted for in the first structure
+ * it is reachable from, so the {@link org.objectweb.asm.tree.ClassNode ClassNodes} of the mixins are reported once,
+ * even though the stubs refer to them. The bytecode provider (which holds the class files of the workload)
+ * is never accounted for.
+ */
+public class FootprintReport {
+
+    private static final String USAGE = "Usage: FootprintReport [--mixins <count>] [--output <json file>]";
+
+    @NotNull
+    private static Map<String, Object> getFields(@NotNull Object instance) throws IllegalAccessException {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Field field : instance.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object value = field.get(instance);
+            if (value != null) {
+                values.put(field.getName(), value);
+            }
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IllegalAccessException, IOException, InterruptedException {
+        int mixinCount = 1000;
+        File output = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 == args.length) {
+                System.err.println("Missing value for argument " + arg);
+                System.err.println(FootprintReport.USAGE);
+                System.exit(2);
+                return;
+            }
+            String value = args[++i];
+            if (arg.equals("--mixins")) {
+                mixinCount = Integer.parseInt(value);
+            } else if (arg.equals("--output")) {
+                output = new File(value);
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                System.err.println(FootprintReport.USAGE);
+                System.exit(2);
+                return;
+            }
+        }
+
+        Workload workload = WorkloadGenerator.generate(new WorkloadShape(mixinCount, mixinCount, 4, 8, 2, 4, false));
+        MixinTransformer<Void> transformer = workload.createTransformer();
+        // Applying the mixins populates the class wrapper pool and any caches used during transformation.
+        // Untouched methods are not copied so that the frames of all methods are recomputed, which requires
+        // the class wrapper pool to hold the hierarchy of all targets.
+        transformer.setCopyUntouchedMethods(false);
+        BatchTransformationResult<byte[]> result = transformer.transformAllBytes(workload.getTargetClassFiles(), 1);
+        if (result.hasFailures()) {
+            throw new IllegalStateException("Unable to transform the workload", result.getFailures().values().iterator().next());
+        }
+
+        Map<String, Long> sizes = FootprintReport.measure(transformer, workload);
+        JSONObject report = new JSONObject();
+        report.put("mixins", mixinCount);
+        report.put("javaVersion", System.getProperty("java.version"));
+        JSONObject bytes = new JSONObject();
+        System.out.println(String.format(Locale.ROOT, "Footprint of %d registered and applied mixins:", mixinCount));
+        for (Map.Entry<String, Long> e : sizes.entrySet()) {
+            bytes.put(e.getKey(), e.getValue());
+            System.out.println(String.format(Locale.ROOT, "  %-45s %12d bytes %10d bytes/mixin", e.getKey(), e.getValue(), e.getValue() / mixinCount));
+        }
+        report.put("bytes", bytes);
+
+        if (output != null) {
+            File parent = output.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory " + parent);
+            }
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8)) {
+                report.write(out, 2, 0);
+                out.write('\n');
+            }
+            System.out.println("Wrote the footprint report to " + output.getAbsolutePath());
+        }
+    }
+
+    @NotNull
+    private static Map<String, Long> measure(@NotNull MixinTransformer<Void> transformer, @NotNull Workload workload) throws IllegalAccessException {
+        Map<String, Long> sizes = new LinkedHashMap<String, Long>();
+        Map<String, Object> fields = FootprintReport.getFields(transformer);
+        List<Object> sourceNodes = new ArrayList<Object>();
+        List<Object> headers = new ArrayList<Object>();
+        List<Object> methodStubs = new ArrayList<Object>();
+        List<Object> fieldStubs = new ArrayList<Object>();
+        Object stubMap = fields.get("mixinStubs");
+        if (stubMap instanceof Map) {
+            for (Object value : ((Map<?, ?>) stubMap).values()) {
+                MixinStub stub = (MixinStub) value;
+                sourceNodes.add(stub.sourceNode);
+                headers.add(stub.header);
+                methodStubs.addAll(stub.methods);
+                fieldStubs.addAll(stub.fields);
+            }
+        }
+
+        // The layers are walked in order, each layer only accounts for the objects that were not reached by a previous layer.
+        // The transformer is excluded until the last layer, as parts of the stubs refer back to it.
+        HeapWalker walker = new HeapWalker();
+        walker.exclude(workload);
+        walker.exclude(transformer);
+        long total = 0L;
+        sizes.put("pool", walker.walk(transformer.getPool()));
+        total += FootprintReport.put(sizes, "transformer.mixinNodes (ClassNodes)", walker.walk(fields.get("mixinNodes"), sourceNodes));
+        total += FootprintReport.put(sizes, "transformer.mixinStubs.headers", walker.walk(headers));
+        total += FootprintReport.put(sizes, "transformer.mixinStubs.methods", walker.walk(methodStubs));
+        total += FootprintReport.put(sizes, "transformer.mixinStubs.fields", walker.walk(fieldStubs));
+        total += FootprintReport.put(sizes, "transformer.mixinStubs (other)", walker.walk(stubMap));
+        total += FootprintReport.put(sizes, "transformer.mixinTargets", walker.walk(fields.get("mixinTargets")));
+        total += FootprintReport.put(sizes, "transformer.mixins", walker.walk(fields.get("mixins"), fields.get("packageDeclarations")));
+        walker.include(transformer);
+        total += FootprintReport.put(sizes, "transformer (other)", walker.walk(transformer));
+        sizes.put("transformer", total);
+        return sizes;
+    }
+
+    private static long put(@NotNull Map<String, Long> sizes, @NotNull String key, long size) {
+        sizes.put(key, size);
+        return size;
+    }
+}
@@ -0,0 +1,125 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jol.vm.VM;
+import org.openjdk.jol.vm.VirtualMachine;
+
+/**
+ * Computes the shallow sizes of object graphs. Objects that were visited by a previous walk are not visited again,
+ * which allows to split a graph into successive layers.
+ *
+ * <p>Classes, class loaders and threads are never entered, as they would pull in the state of the entire JVM.
+ * Instances of this class are not thread-safe.
+ */
+class HeapWalker {
+
+    @NotNull
+    private static final Map<Class<?>, List<Field>> REFERENCE_FIELDS = new ConcurrentHashMap<Class<?>, List<Field>>();
+
+    @NotNull
+    private static List<Field> getReferenceFields(@NotNull Class<?> type) {
+        List<Field> fields = HeapWalker.REFERENCE_FIELDS.get(type);
+        if (fields == null) {
+            fields = new ArrayList<Field>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            HeapWalker.REFERENCE_FIELDS.put(type, fields);
+        }
+        return fields;
+    }
+
+    @NotNull
+    private final VirtualMachine vm = VM.current();
+    @NotNull
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    /**
+     * Excludes an object from all subsequent walks. Objects only reachable through the excluded object are not visited either.
+     *
+     * @param object The object to exclude
+     */
+    public void exclude(@NotNull Object object) {
+        this.visited.add(object);
+    }
+
+    /**
+     * Reverts {@link #exclude(Object)}, so that the object is visited by the next walk that reaches it.
+     *
+     * @param object The object to include
+     */
+    public void include(@NotNull Object object) {
+        this.visited.remove(object);
+    }
+
+    private boolean isOpaque(@NotNull Object object) {
+        return object instanceof Class || object instanceof ClassLoader || object instanceof Thread;
+    }
+
+    /**
+     * Walks all objects reachable from the given roots that were not visited previously.
+     * Elements of a {@link Iterable} root are treated as roots themselves.
+     *
+     * @param roots The roots to start from, null roots are ignored
+     * @return The total shallow size of all newly visited objects, in bytes.
+     */
+    public long walk(@Nullable Object... roots) {
+        Deque<Object> queue = new ArrayDeque<Object>();
+        for (Object root : roots) {
+            if (root instanceof Iterable && !this.visited.contains(root)) {
+                for (Object element : (Iterable<?>) root) {
+                    if (element != null) {
+                        queue.add(element);
+                    }
+                }
+            }
+            if (root != null) {
+                queue.add(root);
+            }
+        }
+
+        long size = 0L;
+        while (!queue.isEmpty()) {
+            Object object = queue.poll();
+            if (this.isOpaque(object) || !this.visited.add(object)) {
+                continue;
+            }
+            size += this.vm.sizeOf(object);
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (Object element : (Object[]) object) {
+                        if (element != null) {
+                            queue.add(element);
+                        }
+                    }
+                }
+                continue;
+            }
+            for (Field field : HeapWalker.getReferenceFields(type)) {
+                Object value = this.vm.getObject(object, this.vm.fieldOffset(field));
+                if (value != null) {
+                    queue.add(value);
+                }
+            }
+        }
+        return size;
+    }
+}
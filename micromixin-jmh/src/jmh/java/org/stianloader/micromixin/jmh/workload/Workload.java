@@ -0,0 +1,114 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.jmh.BenchmarkFixtures;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.RawBytecodeProvider;
+
+/**
+ * A generated workload, consisting of the class files of the targets and mixins as well as the mixin config
+ * that registers the mixins. Classes that are not part of the workload (such as the callback info classes)
+ * are read from the classpath.
+ */
+public class Workload implements RawBytecodeProvider<Void> {
+
+    @NotNull
+    private final Map<String, byte[]> classes;
+    @NotNull
+    private final MixinConfig config;
+    @NotNull
+    private final WorkloadShape shape;
+    @NotNull
+    private final List<String> targets;
+
+    Workload(@NotNull WorkloadShape shape, @NotNull Map<String, byte[]> classes, @NotNull List<String> targets, @NotNull MixinConfig config) {
+        this.shape = shape;
+        this.classes = classes;
+        this.targets = targets;
+        this.config = config;
+    }
+
+    /**
+     * Creates a transformer which has the mixins of this workload registered.
+     *
+     * @return The transformer
+     */
+    @NotNull
+    public MixinTransformer<Void> createTransformer() {
+        MixinTransformer<Void> transformer = new MixinTransformer<Void>(this, BenchmarkFixtures.newPool(this));
+        transformer.addMixin(null, this.config);
+        return transformer;
+    }
+
+    @Override
+    @NotNull
+    public byte[] getClassBytes(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+        byte[] data = this.classes.get(internalName);
+        if (data == null) {
+            data = BenchmarkFixtures.readResource(internalName + ".class");
+            if (data == null) {
+                throw new ClassNotFoundException(internalName);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    @NotNull
+    public ClassNode getClassNode(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+        ClassNode node = new ClassNode();
+        new ClassReader(this.getClassBytes(modularityAttachment, internalName)).accept(node, 0);
+        return node;
+    }
+
+    @NotNull
+    public WorkloadShape getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Obtains the class files of all targets, in generation order.
+     *
+     * @return The class files of the targets
+     */
+    @NotNull
+    public Collection<byte[]> getTargetClassFiles() {
+        List<byte[]> files = new ArrayList<byte[]>(this.targets.size());
+        for (String target : this.targets) {
+            files.add(this.classes.get(target));
+        }
+        return files;
+    }
+
+    /**
+     * Obtains the internal names of all targets, in generation order.
+     *
+     * @return An unmodifiable list of the names of all targets
+     */
+    @NotNull
+    public List<String> getTargets() {
+        return Collections.unmodifiableList(this.targets);
+    }
+
+    /**
+     * Obtains the total size of all generated class files.
+     *
+     * @return The size in bytes
+     */
+    public long getTotalClassFileSize() {
+        long size = 0;
+        for (byte[] data : this.classes.values()) {
+            size += data.length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,263 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+
+/**
+ * Synthesizes targets and mixins of arbitrary scale, for measuring how the transformer scales with the size
+ * of the workload. The output is deterministic for a given {@link WorkloadShape}.
+ *
+ * <p>Each target method consists of {@link WorkloadShape#methodSize} blocks, each of which multiplies an accumulator
+ * with the constant 31, passes it through a static helper method and negates it if it is negative. The methods end
+ * by merging the target itself with a new instance of the root of its hierarchy, which requires the common
+ * superclass of both to be computed when frames are recomputed. The mixins apply a rotating selection of
+ * {@code @Inject} at HEAD and RETURN, {@code @ModifyConstant}, {@code @ModifyArg} and {@code @ModifyReturnValue}.
+ * Redirects are not generated as multiple mixins may target the same class, which would make them conflict.
+ *
+ * <p>The class files are generated with a class file version of Java 8. Stack map frames are computed
+ * using the hierarchy of the generated targets, so no classes need to be loaded to generate a workload.
+ */
+public class WorkloadGenerator {
+
+    /**
+     * A {@link ClassWriter} which resolves common superclasses using the generated targets.
+     */
+    private static class HierarchyClassWriter extends ClassWriter {
+        @NotNull
+        private final Map<String, String> superNames;
+
+        public HierarchyClassWriter(@NotNull Map<String, String> superNames) {
+            super(ClassWriter.COMPUTE_FRAMES);
+            this.superNames = superNames;
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            Set<String> ancestors = new HashSet<String>();
+            for (String type = type1; type != null; type = this.superNames.get(type)) {
+                ancestors.add(type);
+            }
+            for (String type = type2; type != null; type = this.superNames.get(type)) {
+                if (ancestors.contains(type)) {
+                    return type;
+                }
+            }
+            return "java/lang/Object";
+        }
+    }
+
+    private static final String AT = "Lorg/spongepowered/asm/mixin/injection/At;";
+    private static final String CALLBACK_INFO_RETURNABLE = "org/spongepowered/asm/mixin/injection/callback/CallbackInfoReturnable";
+    private static final String MIXIN_PACKAGE = "workload/mixins";
+    private static final int SHAPE_COUNT = 5;
+    private static final String SLICE = "Lorg/spongepowered/asm/mixin/injection/Slice;";
+    private static final String TARGET_PACKAGE = "workload/targets";
+
+    @NotNull
+    private static AnnotationNode at(@NotNull String value, @NotNull String... target) {
+        AnnotationNode at = new AnnotationNode(WorkloadGenerator.AT);
+        at.visit("value", value);
+        if (target.length != 0) {
+            at.visit("target", target[0]);
+        }
+        return at;
+    }
+
+    @NotNull
+    private static MixinConfig createConfig(@NotNull List<String> mixins) {
+        JSONObject config = new JSONObject();
+        config.put("package", WorkloadGenerator.MIXIN_PACKAGE.replace('/', '.'));
+        JSONArray names = new JSONArray();
+        for (String mixin : mixins) {
+            names.put(mixin.substring(WorkloadGenerator.MIXIN_PACKAGE.length() + 1));
+        }
+        config.put("mixins", names);
+        try {
+            return MixinConfig.fromJson(config);
+        } catch (InvalidMixinConfigException e) {
+            throw new IllegalStateException("Generated an invalid mixin config", e);
+        }
+    }
+
+    @NotNull
+    private static MethodNode createHandler(int shape, @NotNull String handlerName, @NotNull String targetMethod, @NotNull String targetName, boolean sliced) {
+        AnnotationNode annotation;
+        MethodNode handler;
+        if (shape == 0 || shape == 3) {
+            // @Inject at HEAD or RETURN
+            annotation = new AnnotationNode("Lorg/spongepowered/asm/mixin/injection/Inject;");
+            annotation.visit("at", Arrays.asList(WorkloadGenerator.at(shape == 0 ? "HEAD" : "RETURN")));
+            handler = new MethodNode(Opcodes.ACC_PRIVATE, handlerName, "(IL" + WorkloadGenerator.CALLBACK_INFO_RETURNABLE + ";)V", null, null);
+            handler.instructions.add(new InsnNode(Opcodes.RETURN));
+        } else {
+            if (shape == 1) {
+                annotation = new AnnotationNode("Lorg/spongepowered/asm/mixin/injection/ModifyConstant;");
+                AnnotationNode constant = new AnnotationNode("Lorg/spongepowered/asm/mixin/injection/Constant;");
+                constant.visit("intValue", 31);
+                annotation.visit("constant", Arrays.asList(constant));
+            } else if (shape == 2) {
+                annotation = new AnnotationNode("Lorg/spongepowered/asm/mixin/injection/ModifyArg;");
+                annotation.visit("at", WorkloadGenerator.at("INVOKE", "L" + targetName + ";helper(I)I"));
+            } else {
+                annotation = new AnnotationNode("Lcom/llamalad7/mixinextras/injector/ModifyReturnValue;");
+                annotation.visit("at", Arrays.asList(WorkloadGenerator.at("RETURN")));
+            }
+            if (sliced) {
+                AnnotationNode slice = new AnnotationNode(WorkloadGenerator.SLICE);
+                slice.visit("from", WorkloadGenerator.at("HEAD"));
+                slice.visit("to", WorkloadGenerator.at("RETURN"));
+                // @ModifyArg declares a single slice, the other injectors declare an array of slices
+                annotation.visit("slice", shape == 2 ? slice : Arrays.asList(slice));
+            }
+            handler = new MethodNode(Opcodes.ACC_PRIVATE, handlerName, "(I)I", null, null);
+            handler.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            handler.instructions.add(new InsnNode(Opcodes.ICONST_1));
+            handler.instructions.add(new InsnNode(Opcodes.IADD));
+            handler.instructions.add(new InsnNode(Opcodes.IRETURN));
+        }
+        annotation.visit("method", Arrays.asList(targetMethod));
+        handler.invisibleAnnotations = new ArrayList<AnnotationNode>(Arrays.asList(annotation));
+        return handler;
+    }
+
+    @NotNull
+    private static ClassNode createMixin(int index, @NotNull String name, @NotNull String targetName, @NotNull WorkloadShape shape) {
+        ClassNode node = new ClassNode();
+        node.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+        AnnotationNode mixin = new AnnotationNode("Lorg/spongepowered/asm/mixin/Mixin;");
+        mixin.visit("value", Arrays.asList(Type.getObjectType(targetName)));
+        node.invisibleAnnotations = new ArrayList<AnnotationNode>(Arrays.asList(mixin));
+
+        for (int method = 0; method < shape.methodsPerTarget; method++) {
+            for (int injection = 0; injection < shape.injectionsPerMethod; injection++) {
+                int injectorShape = (index + method + injection) % WorkloadGenerator.SHAPE_COUNT;
+                node.methods.add(WorkloadGenerator.createHandler(injectorShape, "handler$" + method + "$" + injection, "method" + method, targetName, shape.sliced));
+            }
+        }
+        return node;
+    }
+
+    @NotNull
+    private static ClassNode createTarget(@NotNull String name, @NotNull String superName, @NotNull String rootName, @NotNull WorkloadShape shape) {
+        ClassNode node = new ClassNode();
+        node.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, superName, null);
+
+        MethodNode constructor = new MethodNode(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        constructor.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false));
+        constructor.instructions.add(new InsnNode(Opcodes.RETURN));
+        node.methods.add(constructor);
+
+        MethodNode helper = new MethodNode(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "helper", "(I)I", null, null);
+        helper.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        helper.instructions.add(new IntInsnNode(Opcodes.BIPUSH, 0x5F));
+        helper.instructions.add(new InsnNode(Opcodes.IXOR));
+        helper.instructions.add(new InsnNode(Opcodes.IRETURN));
+        node.methods.add(helper);
+
+        for (int i = 0; i < shape.methodsPerTarget; i++) {
+            MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "method" + i, "(I)I", null, null);
+            InsnList insns = method.instructions;
+            insns.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            insns.add(new VarInsnNode(Opcodes.ISTORE, 2));
+            for (int block = 0; block < shape.methodSize; block++) {
+                LabelNode positive = new LabelNode();
+                insns.add(new VarInsnNode(Opcodes.ILOAD, 2));
+                insns.add(new IntInsnNode(Opcodes.BIPUSH, 31));
+                insns.add(new InsnNode(Opcodes.IMUL));
+                insns.add(new IntInsnNode(Opcodes.SIPUSH, block));
+                insns.add(new InsnNode(Opcodes.IADD));
+                insns.add(new MethodInsnNode(Opcodes.INVOKESTATIC, name, "helper", "(I)I", false));
+                insns.add(new VarInsnNode(Opcodes.ISTORE, 2));
+                insns.add(new VarInsnNode(Opcodes.ILOAD, 2));
+                insns.add(new JumpInsnNode(Opcodes.IFGE, positive));
+                insns.add(new VarInsnNode(Opcodes.ILOAD, 2));
+                insns.add(new InsnNode(Opcodes.INEG));
+                insns.add(new VarInsnNode(Opcodes.ISTORE, 2));
+                insns.add(positive);
+            }
+            LabelNode otherwise = new LabelNode();
+            LabelNode merge = new LabelNode();
+            insns.add(new VarInsnNode(Opcodes.ILOAD, 2));
+            insns.add(new InsnNode(Opcodes.ICONST_1));
+            insns.add(new InsnNode(Opcodes.IAND));
+            insns.add(new JumpInsnNode(Opcodes.IFEQ, otherwise));
+            insns.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            insns.add(new JumpInsnNode(Opcodes.GOTO, merge));
+            insns.add(otherwise);
+            insns.add(new TypeInsnNode(Opcodes.NEW, rootName));
+            insns.add(new InsnNode(Opcodes.DUP));
+            insns.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, rootName, "<init>", "()V", false));
+            insns.add(merge);
+            insns.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, "java/lang/Object", "hashCode", "()I", false));
+            insns.add(new VarInsnNode(Opcodes.ILOAD, 2));
+            insns.add(new InsnNode(Opcodes.IADD));
+            insns.add(new InsnNode(Opcodes.IRETURN));
+            node.methods.add(method);
+        }
+        return node;
+    }
+
+    /**
+     * Generates a workload.
+     *
+     * @param shape The shape of the workload
+     * @return The generated workload
+     */
+    @NotNull
+    public static Workload generate(@NotNull WorkloadShape shape) {
+        Map<String, byte[]> classes = new HashMap<String, byte[]>();
+        Map<String, String> superNames = new HashMap<String, String>();
+        List<String> targets = new ArrayList<String>(shape.targetCount);
+        for (int i = 0; i < shape.targetCount; i++) {
+            int chainIndex = i % shape.hierarchyDepth;
+            String name = WorkloadGenerator.TARGET_PACKAGE + "/Target" + i;
+            String superName = chainIndex == 0 ? "java/lang/Object" : WorkloadGenerator.TARGET_PACKAGE + "/Target" + (i - 1);
+            String rootName = WorkloadGenerator.TARGET_PACKAGE + "/Target" + (i - chainIndex);
+            superNames.put(name, superName);
+            classes.put(name, WorkloadGenerator.write(WorkloadGenerator.createTarget(name, superName, rootName, shape), superNames));
+            targets.add(name);
+        }
+
+        List<String> mixins = new ArrayList<String>(shape.mixinCount);
+        for (int i = 0; i < shape.mixinCount; i++) {
+            String name = WorkloadGenerator.MIXIN_PACKAGE + "/Mixin" + i;
+            classes.put(name, WorkloadGenerator.write(WorkloadGenerator.createMixin(i, name, targets.get(i % shape.targetCount), shape), superNames));
+            mixins.add(name);
+        }
+
+        return new Workload(shape, classes, targets, WorkloadGenerator.createConfig(mixins));
+    }
+
+    @NotNull
+    private static byte[] write(@NotNull ClassNode node, @NotNull Map<String, String> superNames) {
+        ClassWriter writer = new HierarchyClassWriter(superNames);
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+import org.stianloader.micromixin.transform.MixinTransformer;
+
+/**
+ * Headless driver of the {@link WorkloadGenerator}. Generates the same workload at increasing scales, applies it
+ * with a {@link MixinTransformer} and reports how registration time, transformation time and retained heap scale.
+ * If the time per target grows by more than {@link #SUPERLINEAR_THRESHOLD} between the smallest and the largest scale,
+ * the transformer is reported to scale super-linearly and the process exits with status 3.
+ */
+public class WorkloadRunner {
+
+    private static final double SUPERLINEAR_THRESHOLD = 2.0D;
+    private static final String USAGE = "Usage: WorkloadRunner [--targets <count>] [--mixins <count>] [--methods <count>] [--method-size <blocks>]"
+            + " [--injections <count>] [--depth <depth>] [--sliced] [--scales <factor>,<factor>,...] [--threads <count>]";
+
+    private static class Sample {
+        private long registerNanos;
+        private long retainedHeap;
+        private WorkloadShape shape;
+        private long transformNanos;
+        // Keeps the transformer and the workload reachable while the retained heap is measured
+        private MixinTransformer<Void> transformer;
+        private Workload workload;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int targets = 20_000;
+        int mixins = 2_000;
+        int methods = 4;
+        int methodSize = 8;
+        int injections = 2;
+        int depth = 4;
+        boolean sliced = false;
+        String scales = "0.125,0.25,0.5,1";
+        int threads = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(WorkloadRunner.USAGE);
+                return;
+            } else if (arg.equals("--sliced")) {
+                sliced = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                WorkloadRunner.fail("Missing value for argument " + arg);
+                return;
+            }
+            String value = args[++i];
+            try {
+                if (arg.equals("--targets")) {
+                    targets = Integer.parseInt(value);
+                } else if (arg.equals("--mixins")) {
+                    mixins = Integer.parseInt(value);
+                } else if (arg.equals("--methods")) {
+                    methods = Integer.parseInt(value);
+                } else if (arg.equals("--method-size")) {
+                    methodSize = Integer.parseInt(value);
+                } else if (arg.equals("--injections")) {
+                    injections = Integer.parseInt(value);
+                } else if (arg.equals("--depth")) {
+                    depth = Integer.parseInt(value);
+                } else if (arg.equals("--scales")) {
+                    scales = value;
+                } else if (arg.equals("--threads")) {
+                    threads = Integer.parseInt(value);
+                } else {
+                    WorkloadRunner.fail("Unknown argument: " + arg);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                WorkloadRunner.fail("Not a number: " + value);
+                return;
+            }
+        }
+
+        WorkloadShape shape = new WorkloadShape(targets, mixins, methods, methodSize, injections, depth, sliced);
+        System.out.println("Base shape: " + shape);
+        System.out.println(String.format(Locale.ROOT, "%10s %10s %12s %14s %14s %14s", "targets", "mixins", "register ms", "transform ms", "us/target", "retained MiB"));
+
+        String[] factors = scales.split(",");
+        // Warm up the JIT on the smallest scale first, as it would otherwise dominate the first sample
+        if (WorkloadRunner.measure(shape.scale(Double.parseDouble(factors[0].trim())), threads) == null) {
+            System.exit(1);
+            return;
+        }
+
+        List<Sample> samples = new ArrayList<Sample>();
+        for (String factor : factors) {
+            Sample sample = WorkloadRunner.measure(shape.scale(Double.parseDouble(factor.trim())), threads);
+            if (sample == null) {
+                System.exit(1);
+                return;
+            }
+            samples.add(sample);
+            System.out.println(String.format(Locale.ROOT, "%10d %10d %12.1f %14.1f %14.2f %14.1f", sample.shape.targetCount, sample.shape.mixinCount,
+                    sample.registerNanos / 1e6D, sample.transformNanos / 1e6D,
+                    sample.transformNanos / 1e3D / sample.shape.targetCount, sample.retainedHeap / (1024D * 1024D)));
+        }
+
+        if (samples.size() > 1) {
+            Sample smallest = samples.get(0);
+            Sample largest = samples.get(samples.size() - 1);
+            double growth = ((double) largest.transformNanos / largest.shape.targetCount) / ((double) smallest.transformNanos / smallest.shape.targetCount);
+            System.out.println(String.format(Locale.ROOT, "Time per target grew by a factor of %.2f between the smallest and the largest scale", growth));
+            if (growth > WorkloadRunner.SUPERLINEAR_THRESHOLD) {
+                System.out.println("The transformer scales super-linearly with the size of the workload");
+                System.exit(3);
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println(message);
+        System.err.println(WorkloadRunner.USAGE);
+        System.exit(2);
+    }
+
+    private static Sample measure(@NotNull WorkloadShape shape, int threads) throws InterruptedException {
+        Workload workload = WorkloadGenerator.generate(shape);
+        Sample sample = new Sample();
+        sample.shape = shape;
+        sample.workload = workload;
+        long heapBefore = WorkloadRunner.usedHeapAfterGc();
+
+        long start = System.nanoTime();
+        MixinTransformer<Void> transformer = workload.createTransformer();
+        sample.transformer = transformer;
+        sample.registerNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        BatchTransformationResult<byte[]> result = transformer.transformAllBytes(workload.getTargetClassFiles(), threads);
+        sample.transformNanos = System.nanoTime() - start;
+        if (result.hasFailures()) {
+            System.err.println("Unable to transform " + result.getFailures().size() + " targets of " + shape + ", first failure:");
+            for (Map.Entry<String, Throwable> failure : result.getFailures().entrySet()) {
+                System.err.println(failure.getKey() + ":");
+                failure.getValue().printStackTrace();
+                break;
+            }
+            return null;
+        }
+        result = null;
+
+        // The workload was already retained before, so the difference is the state retained by the transformer
+        sample.retainedHeap = WorkloadRunner.usedHeapAfterGc() - heapBefore;
+        sample.transformer = null;
+        sample.workload = null;
+        return sample;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,69 @@
+package org.stianloader.micromixin.jmh.workload;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The shape of a synthetic workload as generated by the {@link WorkloadGenerator}.
+ */
+public class WorkloadShape {
+
+    /**
+     * The depth of the class hierarchies the targets are arranged in. The targets are split into chains of
+     * this many classes, where each target extends its predecessor within the chain.
+     */
+    public final int hierarchyDepth;
+    /**
+     * The amount of injectors each mixin applies to each method of its target.
+     */
+    public final int injectionsPerMethod;
+    /**
+     * The amount of blocks (consisting of a constant, an invocation and a branch each) per target method.
+     */
+    public final int methodSize;
+    /**
+     * The amount of methods of each target.
+     */
+    public final int methodsPerTarget;
+    /**
+     * The amount of mixins. Mixins are assigned to the targets in a round-robin fashion, so if there are
+     * less mixins than targets only some of the targets are transformed.
+     */
+    public final int mixinCount;
+    /**
+     * Whether the injectors that support slices are restricted to an explicit slice.
+     */
+    public final boolean sliced;
+    public final int targetCount;
+
+    public WorkloadShape(int targetCount, int mixinCount, int methodsPerTarget, int methodSize, int injectionsPerMethod, int hierarchyDepth, boolean sliced) {
+        if (targetCount < 1 || mixinCount < 0 || methodsPerTarget < 1 || methodSize < 1 || injectionsPerMethod < 0 || hierarchyDepth < 1) {
+            throw new IllegalArgumentException("Invalid workload shape: " + this);
+        }
+        this.targetCount = targetCount;
+        this.mixinCount = mixinCount;
+        this.methodsPerTarget = methodsPerTarget;
+        this.methodSize = methodSize;
+        this.injectionsPerMethod = injectionsPerMethod;
+        this.hierarchyDepth = hierarchyDepth;
+        this.sliced = sliced;
+    }
+
+    /**
+     * Obtains a workload of the same shape, but with the amount of targets and mixins scaled by the given factor.
+     *
+     * @param factor The factor to scale by
+     * @return The scaled shape
+     */
+    @NotNull
+    public WorkloadShape scale(double factor) {
+        return new WorkloadShape(Math.max(1, (int) (this.targetCount * factor)), (int) (this.mixinCount * factor),
+                this.methodsPerTarget, this.methodSize, this.injectionsPerMethod, this.hierarchyDepth, this.sliced);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadShape[targets=" + this.targetCount + ", mixins=" + this.mixinCount + ", methodsPerTarget=" + this.methodsPerTarget
+                + ", methodSize=" + this.methodSize + ", injectionsPerMethod=" + this.injectionsPerMethod
+                + ", hierarchyDepth=" + this.hierarchyDepth + ", sliced=" + this.sliced + "]";
+    }
+}
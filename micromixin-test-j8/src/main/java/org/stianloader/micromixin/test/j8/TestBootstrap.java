@@ -1,5 +1,11 @@
 package org.stianloader.micromixin.test.j8;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.slf4j.LoggerFactory;
+import org.stianloader.micromixin.test.j8.benchmark.CorpusBenchmark;
+
 import de.geolykt.starloader.mod.Extension;
 
 public class TestBootstrap extends Extension {
@@ -7,6 +13,16 @@ public class TestBootstrap extends Extension {
     @Override
     public void preInitialize() {
         super.preInitialize();
+        String benchmarkReport = System.getProperty(CorpusBenchmark.REPORT_PROPERTY);
+        if (benchmarkReport != null) {
+            // The benchmark needs to be the first to load the targets, so the tests are not run alongside it
+            try {
+                CorpusBenchmark.run(Paths.get(benchmarkReport));
+            } catch (IOException e) {
+                LoggerFactory.getLogger(TestBootstrap.class).error("Unable to run the corpus benchmark", e);
+            }
+            return;
+        }
         TestHarness.runAllTests();
     }
 }
@@ -0,0 +1,371 @@
+package org.stianloader.micromixin.test.j8.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * End-to-end benchmark of the mixin implementation the harness is running under, using the targets of the
+ * test corpus as the workload. As the harness runs unchanged under both Micromixin and Sponge's Mixin
+ * implementation (see the README of this module), running it under both launchers and comparing the
+ * reports yields a comparison of both implementations on exactly the same corpus.
+ *
+ * <p>The benchmark measures:
+ * <ul>
+ * <li>The time it takes to load every target class through the launcher, which includes the time it takes to transform
+ * the class, next to the time it takes to define the untransformed class file in an {@link IsolatedTargetLoader}.</li>
+ * <li>The heap in use (after garbage collection) before and after loading all targets through the launcher.</li>
+ * <li>The throughput of every public static no-args method of the targets, both patched and unpatched.
+ * Methods that throw in either variant are skipped.</li>
+ * </ul>
+ *
+ * The benchmark is enabled by setting the {@link #REPORT_PROPERTY} system property to the path of the JSON report
+ * to write, in which case it runs instead of the tests. The targets must not have been loaded beforehand.
+ * Throughput is measured with a simple time-boxed loop and is meant for comparing the variants and implementations
+ * against each other, not as an absolute measure.
+ */
+public class CorpusBenchmark {
+
+    private static class ClassResult {
+        private long baselineLoadNanos = -1;
+        @Nullable
+        private Class<?> baseline;
+        @Nullable
+        private String failure;
+        @NotNull
+        private final String name;
+        @Nullable
+        private Class<?> patched;
+        private long patchedLoadNanos = -1;
+
+        public ClassResult(@NotNull String name) {
+            this.name = name;
+        }
+    }
+
+    private static class MethodResult {
+        private double baselineNanosPerOp = Double.NaN;
+        @NotNull
+        private final String name;
+        @NotNull
+        private final String owner;
+        private double patchedNanosPerOp = Double.NaN;
+        @Nullable
+        private String skipReason;
+
+        public MethodResult(@NotNull String owner, @NotNull String name) {
+            this.owner = owner;
+            this.name = name;
+        }
+    }
+
+    public static final String MEASURE_MILLIS_PROPERTY = "org.stianloader.micromixin.test.j8.benchmark.measureMillis";
+    public static final String REPORT_PROPERTY = "org.stianloader.micromixin.test.j8.benchmark.report";
+    private static final String TARGET_PACKAGE = "org.stianloader.micromixin.test.j8.targets.";
+    public static final String WARMUP_MILLIS_PROPERTY = "org.stianloader.micromixin.test.j8.benchmark.warmupMillis";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CorpusBenchmark.class);
+    static Object sink;
+
+    @NotNull
+    private static String describe(@NotNull Throwable t) {
+        while (t.getCause() != null && t.getMessage() == null) {
+            t = t.getCause();
+        }
+        return t.getClass().getName() + (t.getMessage() == null ? "" : ": " + t.getMessage());
+    }
+
+    @NotNull
+    private static String detectImplementation(@NotNull ClassLoader loader) {
+        if (CorpusBenchmark.isPresent(loader, "org.stianloader.micromixin.transform.MixinTransformer")) {
+            return "micromixin";
+        } else if (CorpusBenchmark.isPresent(loader, "org.spongepowered.asm.mixin.transformer.MixinTransformer")) {
+            return "sponge";
+        }
+        return "unknown";
+    }
+
+    private static boolean isPresent(@NotNull ClassLoader loader, @NotNull String name) {
+        return loader.getResource(name.replace('.', '/') + ".class") != null;
+    }
+
+    /**
+     * Lists the binary names of all classes within the target package of the corpus.
+     */
+    @NotNull
+    private static List<String> listTargets() throws IOException {
+        URL location = CorpusBenchmark.class.getProtectionDomain().getCodeSource().getLocation();
+        Path path;
+        try {
+            path = Paths.get(location.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Unable to locate the corpus at " + location, e);
+        }
+        String directory = CorpusBenchmark.TARGET_PACKAGE.replace('.', '/');
+        List<String> names = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            Path root = path;
+            try (Stream<Path> files = Files.walk(root.resolve(directory))) {
+                files.filter(file -> file.toString().endsWith(".class")).forEach(file -> {
+                    names.add(root.relativize(file).toString().replace(File.separatorChar, '/'));
+                });
+            }
+        } else {
+            try (ZipFile jar = new ZipFile(path.toFile())) {
+                for (Enumeration<? extends ZipEntry> it = jar.entries(); it.hasMoreElements();) {
+                    String name = it.nextElement().getName();
+                    if (name.startsWith(directory) && name.endsWith(".class")) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        List<String> binaryNames = new ArrayList<>();
+        for (String name : names) {
+            binaryNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+        }
+        Collections.sort(binaryNames);
+        return binaryNames;
+    }
+
+    private static double measure(@NotNull MethodHandle handle, long warmupNanos, long measureNanos) throws Throwable {
+        CorpusBenchmark.run(handle, warmupNanos);
+        return CorpusBenchmark.run(handle, measureNanos);
+    }
+
+    /**
+     * Runs the benchmark and writes the report.
+     *
+     * @param report The file to write the JSON report to
+     * @throws IOException If the corpus could not be read or the report could not be written
+     */
+    public static void run(@NotNull Path report) throws IOException {
+        long warmupNanos = Long.getLong(CorpusBenchmark.WARMUP_MILLIS_PROPERTY, 100L) * 1_000_000L;
+        long measureNanos = Long.getLong(CorpusBenchmark.MEASURE_MILLIS_PROPERTY, 200L) * 1_000_000L;
+        ClassLoader launcherLoader = CorpusBenchmark.class.getClassLoader();
+        String implementation = CorpusBenchmark.detectImplementation(launcherLoader);
+        CorpusBenchmark.LOGGER.info("Running the corpus benchmark under the {} mixin implementation", implementation);
+
+        List<ClassResult> classes = new ArrayList<>();
+        for (String name : CorpusBenchmark.listTargets()) {
+            classes.add(new ClassResult(name));
+        }
+
+        // Loading through the launcher applies the mixins
+        long heapBefore = CorpusBenchmark.usedHeapAfterGc();
+        for (ClassResult result : classes) {
+            long start = System.nanoTime();
+            try {
+                result.patched = Class.forName(result.name, false, launcherLoader);
+                result.patchedLoadNanos = System.nanoTime() - start;
+            } catch (Throwable t) {
+                result.failure = CorpusBenchmark.describe(t);
+            }
+        }
+        long heapAfter = CorpusBenchmark.usedHeapAfterGc();
+
+        IsolatedTargetLoader baselineLoader = new IsolatedTargetLoader(launcherLoader, CorpusBenchmark.TARGET_PACKAGE);
+        for (ClassResult result : classes) {
+            long start = System.nanoTime();
+            try {
+                result.baseline = baselineLoader.loadClass(result.name);
+                result.baselineLoadNanos = System.nanoTime() - start;
+            } catch (Throwable t) {
+                if (result.failure == null) {
+                    result.failure = "baseline: " + CorpusBenchmark.describe(t);
+                }
+            }
+        }
+
+        List<MethodResult> methods = new ArrayList<>();
+        PrintStream originOut = System.out;
+        try {
+            // Some targets print their locals, which would otherwise flood the output
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    // NOP
+                }
+            }));
+            for (ClassResult result : classes) {
+                if (result.patched != null && result.baseline != null) {
+                    CorpusBenchmark.runMethods(result, methods, warmupNanos, measureNanos);
+                }
+            }
+        } finally {
+            System.setOut(originOut);
+        }
+
+        try (Writer out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            CorpusBenchmark.writeReport(new JsonWriter(out), implementation, warmupNanos, measureNanos, heapBefore, heapAfter, classes, methods);
+            out.write('\n');
+        }
+        CorpusBenchmark.LOGGER.info("Wrote the corpus benchmark report to {}", report.toAbsolutePath());
+    }
+
+    /**
+     * Invokes the handle in batches until the given amount of time has passed.
+     *
+     * @return The average time per invocation in nanoseconds
+     */
+    private static double run(@NotNull MethodHandle handle, long durationNanos) throws Throwable {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                CorpusBenchmark.sink = (Object) handle.invokeExact();
+            }
+            ops += 1000;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        return (double) elapsed / ops;
+    }
+
+    private static void runMethods(@NotNull ClassResult result, @NotNull List<MethodResult> out, long warmupNanos, long measureNanos) {
+        Class<?> patched = result.patched;
+        Class<?> baseline = result.baseline;
+        assert patched != null && baseline != null;
+        Method[] declared = patched.getDeclaredMethods();
+        Arrays.sort(declared, Comparator.comparing(Method::getName));
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType genericType = MethodType.methodType(Object.class);
+        for (Method method : declared) {
+            int modifiers = method.getModifiers();
+            if (!Modifier.isPublic(modifiers) || !Modifier.isStatic(modifiers) || method.getParameterCount() != 0 || method.isSynthetic()) {
+                continue;
+            }
+            MethodResult methodResult = new MethodResult(result.name, method.getName());
+            out.add(methodResult);
+            MethodHandle patchedHandle;
+            MethodHandle baselineHandle;
+            try {
+                patchedHandle = lookup.unreflect(method).asType(genericType);
+                baselineHandle = lookup.unreflect(baseline.getMethod(method.getName())).asType(genericType);
+            } catch (ReflectiveOperationException e) {
+                methodResult.skipReason = CorpusBenchmark.describe(e);
+                continue;
+            }
+            try {
+                // Probe both variants once so that methods which are expected to throw are skipped
+                CorpusBenchmark.sink = (Object) patchedHandle.invokeExact();
+                CorpusBenchmark.sink = (Object) baselineHandle.invokeExact();
+            } catch (Throwable t) {
+                methodResult.skipReason = CorpusBenchmark.describe(t);
+                continue;
+            }
+            try {
+                methodResult.baselineNanosPerOp = CorpusBenchmark.measure(baselineHandle, warmupNanos, measureNanos);
+                methodResult.patchedNanosPerOp = CorpusBenchmark.measure(patchedHandle, warmupNanos, measureNanos);
+            } catch (Throwable t) {
+                methodResult.skipReason = CorpusBenchmark.describe(t);
+            }
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void writeReport(@NotNull JsonWriter json, @NotNull String implementation,
+            long warmupNanos, long measureNanos, long heapBefore, long heapAfter,
+            @NotNull List<ClassResult> classes, @NotNull List<MethodResult> methods) throws IOException {
+        long patchedLoadNanos = 0;
+        long baselineLoadNanos = 0;
+        int failedClasses = 0;
+        for (ClassResult result : classes) {
+            if (result.failure != null) {
+                failedClasses++;
+            } else {
+                patchedLoadNanos += result.patchedLoadNanos;
+                baselineLoadNanos += result.baselineLoadNanos;
+            }
+        }
+        int measuredMethods = 0;
+        for (MethodResult result : methods) {
+            if (result.skipReason == null) {
+                measuredMethods++;
+            }
+        }
+
+        json.beginObject(null);
+        json.value("implementation", implementation);
+        json.value("javaVersion", System.getProperty("java.version"));
+        json.value("vmName", System.getProperty("java.vm.name"));
+        json.value("warmupMillis", warmupNanos / 1_000_000L);
+        json.value("measureMillis", measureNanos / 1_000_000L);
+
+        json.beginObject("summary");
+        json.value("classes", classes.size());
+        json.value("failedClasses", failedClasses);
+        json.value("patchedLoadNanos", patchedLoadNanos);
+        json.value("baselineLoadNanos", baselineLoadNanos);
+        json.value("heapUsedBeforeLoad", heapBefore);
+        json.value("heapUsedAfterLoad", heapAfter);
+        json.value("retainedHeapDelta", heapAfter - heapBefore);
+        json.value("methods", methods.size());
+        json.value("measuredMethods", measuredMethods);
+        json.endObject();
+
+        json.beginArray("classes");
+        for (ClassResult result : classes) {
+            json.beginObject(null);
+            json.value("name", result.name);
+            json.value("patchedLoadNanos", result.patchedLoadNanos);
+            json.value("baselineLoadNanos", result.baselineLoadNanos);
+            json.value("failure", result.failure);
+            json.endObject();
+        }
+        json.endArray();
+
+        json.beginArray("methods");
+        for (MethodResult result : methods) {
+            json.beginObject(null);
+            json.value("owner", result.owner);
+            json.value("name", result.name);
+            json.value("patchedNanosPerOp", result.patchedNanosPerOp);
+            json.value("baselineNanosPerOp", result.baselineNanosPerOp);
+            json.value("skipReason", result.skipReason);
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
@@ -0,0 +1,66 @@
+package org.stianloader.micromixin.test.j8.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Defines the classes of a package straight from their class files, bypassing any transformation
+ * the launcher would apply. All other classes are delegated to the parent class loader.
+ * This yields unpatched copies of the mixin targets which serve as the baseline of the {@link CorpusBenchmark}.
+ */
+public class IsolatedTargetLoader extends ClassLoader {
+
+    @NotNull
+    private final String packagePrefix;
+
+    public IsolatedTargetLoader(@NotNull ClassLoader parent, @NotNull String packagePrefix) {
+        super(parent);
+        this.packagePrefix = packagePrefix;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(this.packagePrefix)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (this.getClassLoadingLock(name)) {
+            Class<?> type = this.findLoadedClass(name);
+            if (type == null) {
+                type = this.findClass(name);
+            }
+            if (resolve) {
+                this.resolveClass(type);
+            }
+            return type;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] data;
+        try {
+            data = IsolatedTargetLoader.readClassFile(this.getParent(), name);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        return this.defineClass(name, data, 0, data.length);
+    }
+
+    @NotNull
+    static byte[] readClassFile(@NotNull ClassLoader loader, @NotNull String name) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new IOException("Class file of " + name + " not found");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.stianloader.micromixin.test.j8.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A minimal streaming JSON writer, so that the benchmark report does not require a JSON library
+ * to be present in the launcher environment. Separators are inserted automatically.
+ */
+class JsonWriter {
+
+    private boolean first = true;
+    private int depth;
+    @NotNull
+    private final Writer out;
+
+    JsonWriter(@NotNull Writer out) {
+        this.out = out;
+    }
+
+    @NotNull
+    JsonWriter beginArray(@Nullable String name) throws IOException {
+        this.key(name);
+        this.out.write('[');
+        this.first = true;
+        this.depth++;
+        return this;
+    }
+
+    @NotNull
+    JsonWriter beginObject(@Nullable String name) throws IOException {
+        this.key(name);
+        this.out.write('{');
+        this.first = true;
+        this.depth++;
+        return this;
+    }
+
+    @NotNull
+    JsonWriter endArray() throws IOException {
+        this.depth--;
+        this.newline();
+        this.out.write(']');
+        this.first = false;
+        return this;
+    }
+
+    @NotNull
+    JsonWriter endObject() throws IOException {
+        this.depth--;
+        this.newline();
+        this.out.write('}');
+        this.first = false;
+        return this;
+    }
+
+    private void key(@Nullable String name) throws IOException {
+        if (!this.first) {
+            this.out.write(',');
+        }
+        this.first = false;
+        if (this.depth != 0) {
+            this.newline();
+        }
+        if (name != null) {
+            this.string(name);
+            this.out.write(": ");
+        }
+    }
+
+    private void newline() throws IOException {
+        this.out.write('\n');
+        for (int i = 0; i < this.depth; i++) {
+            this.out.write("  ");
+        }
+    }
+
+    private void string(@NotNull String value) throws IOException {
+        this.out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                this.out.write('\\');
+                this.out.write(c);
+            } else if (c < 0x20) {
+                this.out.write(String.format("\\u%04x", (int) c));
+            } else {
+                this.out.write(c);
+            }
+        }
+        this.out.write('"');
+    }
+
+    @NotNull
+    JsonWriter value(@Nullable String name, boolean value) throws IOException {
+        this.key(name);
+        this.out.write(Boolean.toString(value));
+        return this;
+    }
+
+    @NotNull
+    JsonWriter value(@Nullable String name, double value) throws IOException {
+        this.key(name);
+        this.out.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        return this;
+    }
+
+    @NotNull
+    JsonWriter value(@Nullable String name, long value) throws IOException {
+        this.key(name);
+        this.out.write(Long.toString(value));
+        return this;
+    }
+
+    @NotNull
+    JsonWriter value(@Nullable String name, @Nullable String value) throws IOException {
+        this.key(name);
+        if (value == null) {
+            this.out.write("null");
+        } else {
+            this.string(value);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,59 @@
+package org.stianloader.micromixin.transform;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The outcome of a batch transformation as performed by {@link MixinTransformer#transformAll(java.util.Collection, java.util.concurrent.ExecutorService)}
+ * or {@link MixinTransformer#transformAllBytes(java.util.Collection, java.util.concurrent.ExecutorService)}.
+ *
+ * <p>Classes that are not targeted by any mixin are neither present in {@link #getTransformed()}
+ * nor in {@link #getFailures()}.
+ *
+ * @param <T> The type of the transformed classes, either {@link org.objectweb.asm.tree.ClassNode} or byte[].
+ */
+public class BatchTransformationResult<T> {
+
+    @NotNull
+    private final Map<String, Throwable> failures;
+    @NotNull
+    private final Map<String, T> transformed;
+
+    public BatchTransformationResult(@NotNull Map<String, T> transformed, @NotNull Map<String, Throwable> failures) {
+        this.transformed = transformed;
+        this.failures = failures;
+    }
+
+    /**
+     * Obtains the exceptions that were thrown while transforming a class, keyed by the internal name
+     * of the class.
+     *
+     * @return An unmodifiable view of all failed transformations.
+     */
+    @SuppressWarnings("null")
+    @NotNull
+    @Contract(pure = true)
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(this.failures);
+    }
+
+    /**
+     * Obtains all successfully transformed classes, keyed by their internal name.
+     *
+     * @return An unmodifiable view of all transformed classes.
+     */
+    @SuppressWarnings("null")
+    @NotNull
+    @Contract(pure = true)
+    public Map<String, T> getTransformed() {
+        return Collections.unmodifiableMap(this.transformed);
+    }
+
+    @Contract(pure = true)
+    public boolean hasFailures() {
+        return !this.failures.isEmpty();
+    }
+}
@@ -2,14 +2,32 @@ package org.stianloader.micromixin.transform;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.util.CheckClassAdapter;
@@ -17,8 +35,11 @@ import org.objectweb.asm.util.Textifier;
 import org.objectweb.asm.util.TraceClassVisitor;
 import org.stianloader.micromixin.transform.api.InjectionPointSelectorFactory;
 import org.stianloader.micromixin.transform.api.MixinLoggingFacade;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
+import org.stianloader.micromixin.transform.api.TransformationCache;
 import org.stianloader.micromixin.transform.internal.DefaultMixinLogger;
 import org.stianloader.micromixin.transform.internal.HandlerContextHelper;
+import org.stianloader.micromixin.transform.internal.MixinHeader;
 import org.stianloader.micromixin.transform.internal.MixinParseException;
 import org.stianloader.micromixin.transform.internal.MixinStub;
 import org.stianloader.micromixin.transform.internal.selectors.inject.ConstantInjectionPointSelector;
@@ -26,7 +47,10 @@ import org.stianloader.micromixin.transform.internal.selectors.inject.HeadInject
 import org.stianloader.micromixin.transform.internal.selectors.inject.InvokeInjectionPointSelector;
 import org.stianloader.micromixin.transform.internal.selectors.inject.ReturnInjectionPointSelector;
 import org.stianloader.micromixin.transform.internal.selectors.inject.TailInjectionPointSelector;
+import org.stianloader.micromixin.transform.internal.util.MixinEvents;
 import org.stianloader.micromixin.transform.internal.util.Objects;
+import org.stianloader.micromixin.transform.internal.util.PoolAwareClassWriter;
+import org.stianloader.micromixin.transform.internal.util.UntouchedMethodCopier;
 import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
 
 /**
@@ -43,31 +67,146 @@ import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
  * but really anything goes, {@link Void} for example is perfectly fine as long as the {@link BytecodeProvider}
  * accounts for null attachments. All methods in {@link MixinTransformer} support null attachments internally,
  * albeit it is not recommended to use null for any method.
+ *
+ * <p>Registration of mixins via {@link #addMixin(Object, MixinConfig)} is serialized internally.
+ * {@link #transform(ClassNode)}, {@link #isMixin(Object, String)} and {@link #isMixinTarget(String)}
+ * can be invoked concurrently from an arbitrary amount of threads (for example from parallel-capable
+ * classloaders) without external synchronization, as long as the transformed {@link ClassNode} instances
+ * are not shared between threads. Mixins that are registered while a transformation is in progress will
+ * not be applied to that transformation.
  */
 public class MixinTransformer<M> {
 
+    /**
+     * A mixin that was registered through {@link MixinTransformer#addMixin(Object, MixinConfig, ExecutorService)}.
+     * If mixins are {@link MixinTransformer#isParsingMixinsLazily() parsed lazily}, only the {@link MixinHeader}
+     * is known at registration time and the full {@link MixinStub} is parsed once it is first needed.
+     */
+    private final class RegisteredMixin implements Comparable<RegisteredMixin> {
+        private final int defaultPriority;
+        @NotNull
+        private final MixinHeader header;
+        @NotNull
+        private final ModularityAttached<M, String> mixinRef;
+        /**
+         * The SHA-256 digest of the mixin's class file. Guarded by this.
+         */
+        @Nullable
+        private byte[] fingerprint;
+        @Nullable
+        private Exception parseFailure;
+        @Nullable
+        private volatile MixinStub stub;
+
+        private RegisteredMixin(@NotNull ModularityAttached<M, String> mixinRef, int defaultPriority, @NotNull MixinHeader header, @Nullable MixinStub stub) {
+            this.mixinRef = mixinRef;
+            this.defaultPriority = defaultPriority;
+            this.header = header;
+            this.stub = stub;
+        }
+
+        @Override
+        public int compareTo(RegisteredMixin o) {
+            return this.header.priority - o.header.priority;
+        }
+
+        /**
+         * Obtains the SHA-256 digest of the class file of this mixin, without parsing the mixin.
+         * Class files provided by a {@link RawBytecodeProvider} are digested as-is, otherwise a freshly
+         * provided {@link ClassNode} is serialized first.
+         *
+         * @return The fingerprint of the mixin
+         */
+        @NotNull
+        private synchronized byte[] getFingerprint() {
+            byte[] fingerprint = this.fingerprint;
+            if (fingerprint == null) {
+                BytecodeProvider<M> provider = MixinTransformer.this.bytecodeProvider;
+                byte[] classFile;
+                try {
+                    if (provider instanceof RawBytecodeProvider) {
+                        classFile = ((RawBytecodeProvider<M>) provider).getClassBytes(this.mixinRef.attachment, this.mixinRef.value);
+                    } else {
+                        ClassWriter writer = new ClassWriter(0);
+                        provider.getClassNode(this.mixinRef.attachment, this.mixinRef.value).accept(writer);
+                        classFile = writer.toByteArray();
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Broken mixin: " + this.mixinRef.value + " (attached via " + this.mixinRef.attachment + ")", e);
+                }
+                this.fingerprint = fingerprint = MixinTransformer.newDigest().digest(classFile);
+            }
+            return fingerprint;
+        }
+
+        @NotNull
+        private MixinStub getStub() {
+            MixinStub stub = this.stub;
+            if (stub != null) {
+                return stub;
+            }
+            synchronized (this) {
+                stub = this.stub;
+                if (stub != null) {
+                    return stub;
+                }
+                if (this.parseFailure == null) {
+                    try {
+                        ClassNode node = MixinTransformer.this.bytecodeProvider.getClassNode(this.mixinRef.attachment, this.mixinRef.value);
+                        stub = MixinTransformer.this.parseStub(this.mixinRef, this.defaultPriority, node, new StringBuilder());
+                        MixinTransformer.this.mixinNodes.put(this.mixinRef, node);
+                        MixinTransformer.this.mixinStubs.put(this.mixinRef, stub);
+                        this.stub = stub;
+                        return stub;
+                    } catch (ClassNotFoundException e) {
+                        this.parseFailure = e;
+                    } catch (MixinParseException e) {
+                        this.parseFailure = e;
+                    }
+                }
+                throw new IllegalStateException("Broken mixin: " + this.mixinRef.value + " (attached via " + this.mixinRef.attachment + ")", this.parseFailure);
+            }
+        }
+    }
+
+    /**
+     * Version of the transformation output format, included in all {@link TransformationCache} keys.
+     * Must be incremented whenever the output of the transformer changes for the same input.
+     */
+    private static final int CACHE_KEY_VERSION = 1;
     private static final boolean DEBUG = Boolean.getBoolean("org.stianloader.micromixin.debug");
 
     @NotNull
     private final BytecodeProvider<M> bytecodeProvider;
-    private boolean delayParseExceptions = Boolean.getBoolean("org.stianloader.micromixin.delayedParseException");
+    private volatile boolean copyUntouchedMethods = true;
+    private volatile boolean delayParseExceptions = Boolean.getBoolean("org.stianloader.micromixin.delayedParseException");
     @NotNull
     private final InjectionPointSelectorFactory injectionPointSelectors = new InjectionPointSelectorFactory();
     @NotNull
-    private MixinLoggingFacade logger = new DefaultMixinLogger();
-    private boolean mergeClassFileVersions = true;
+    private volatile MixinLoggingFacade logger = new DefaultMixinLogger();
+    private volatile boolean mergeClassFileVersions = true;
     @NotNull
-    private final Map<ModularityAttached<M, String>, ClassNode> mixinNodes = new HashMap<ModularityAttached<M, String>, ClassNode>();
+    private final Map<ModularityAttached<M, String>, ClassNode> mixinNodes = new ConcurrentHashMap<ModularityAttached<M, String>, ClassNode>();
     @NotNull
     private final Map<ModularityAttached<M, String>, MixinConfig> mixins = new HashMap<ModularityAttached<M, String>, MixinConfig>();
     @NotNull
-    private final Map<ModularityAttached<M, String>, MixinStub> mixinStubs = new HashMap<ModularityAttached<M, String>, MixinStub>();
+    private final Map<ModularityAttached<M, String>, MixinStub> mixinStubs = new ConcurrentHashMap<ModularityAttached<M, String>, MixinStub>();
+    /**
+     * The mixins that should be applied on a given class.
+     * Values are never mutated after being inserted, instead they are replaced by an updated copy.
+     * This allows lock-free reads from {@link #transform(ClassNode)}.
+     */
     @NotNull
-    private final Map<String, TreeSet<MixinStub>> mixinTargets = new HashMap<String, TreeSet<MixinStub>>();
+    private final ConcurrentMap<String, SortedSet<RegisteredMixin>> mixinTargets = new ConcurrentHashMap<String, SortedSet<RegisteredMixin>>();
     @NotNull
-    private final Map<ModularityAttached<M, String>, MixinConfig> packageDeclarations = new HashMap<ModularityAttached<M, String>, MixinConfig>();
+    private final ConcurrentMap<ModularityAttached<M, String>, MixinConfig> packageDeclarations = new ConcurrentHashMap<ModularityAttached<M, String>, MixinConfig>();
+    private volatile boolean parseMixinsLazily = Boolean.getBoolean("org.stianloader.micromixin.lazyParsing");
     @NotNull
     private final ClassWrapperPool pool;
+    @Nullable
+    private volatile TransformationCache transformationCache;
+    @Nullable
+    private volatile MixinMetrics metrics;
 
     public MixinTransformer(@NotNull BytecodeProvider<M> bytecodeProvider, @NotNull ClassWrapperPool pool) {
         this.bytecodeProvider = bytecodeProvider;
@@ -79,41 +218,172 @@ public class MixinTransformer<M> {
         this.injectionPointSelectors.register(TailInjectionPointSelector.INSTANCE);
     }
 
-    public void addMixin(M attachment, @NotNull MixinConfig config) {
+    @NotNull
+    private static ExecutorService createBatchExecutor(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive, but was " + parallelism);
+        }
+        return Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "Micromixin batch transformer #" + this.threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    @NotNull
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported by all JVMs", e);
+        }
+    }
+
+    @NotNull
+    private static <T> BatchTransformationResult<T> awaitBatch(@NotNull Map<String, Future<T>> tasks, @NotNull Map<String, Throwable> failures) throws InterruptedException {
+        Map<String, T> transformed = new LinkedHashMap<String, T>();
+        try {
+            for (Map.Entry<String, Future<T>> task : tasks.entrySet()) {
+                try {
+                    transformed.put(task.getKey(), task.getValue().get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error && !(cause instanceof AssertionError)) {
+                        throw (Error) cause;
+                    }
+                    failures.put(task.getKey(), cause);
+                }
+            }
+        } finally {
+            // Only has an effect if we bail out early
+            for (Future<T> task : tasks.values()) {
+                task.cancel(true);
+            }
+        }
+        return new BatchTransformationResult<T>(transformed, failures);
+    }
+
+    @NotNull
+    private static <T> T awaitParse(@NotNull Future<T> task) throws ClassNotFoundException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return Objects.requireNonNull(task.get());
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ClassNotFoundException) {
+                        throw (ClassNotFoundException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Unexpected exception while parsing a mixin", cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public synchronized void addMixin(M attachment, @NotNull MixinConfig config) {
+        this.addMixin(attachment, config, null);
+    }
+
+    /**
+     * Registers all mixins of a mixin configuration. If an {@link ExecutorService} is supplied,
+     * the mixin classes are fetched from the {@link BytecodeProvider} and parsed in parallel
+     * on said executor, in which case the {@link BytecodeProvider} must be safe to call concurrently.
+     * Regardless of the executor, mixins are registered in the same order and exceptions are reported
+     * in the same way as if they were parsed sequentially.
+     *
+     * @param attachment The modularity attachment of the mixin configuration
+     * @param config The mixin configuration to register
+     * @param executor The executor to parse the mixins on, or null to parse them on the calling thread.
+     * The executor is not shut down by this method.
+     */
+    public synchronized void addMixin(final M attachment, @NotNull final MixinConfig config, @Nullable ExecutorService executor) {
         Objects.requireNonNull(config, "config must not be null");
+        MixinMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
         if (this.isMixin(attachment, config.mixinPackage)) { // FIXME: also validate other configs inserted previously.
             throw new IllegalStateException("Two mixin configurations within the same modularity attachment (" + attachment + ") target the same package (" + config.mixinPackage + ").");
         }
         this.packageDeclarations.put(new ModularityAttached<M, String>(attachment, config.mixinPackage), config);
-        StringBuilder sharedBuilder = new StringBuilder();
-        // FIXME unregister registered stuff if it fails
-        for (String mixin : config.mixins) {
-            ModularityAttached<M, String> mixinRef = new ModularityAttached<M, String>(attachment, config.mixinPackage + "/" + mixin);
-            if (this.mixins.containsKey(mixinRef)) {
-                throw new IllegalStateException("Two mixin configurations within the same modularity attachment (" + attachment + ") use the same class (" + mixinRef.value + ").");
+        Map<String, Future<RegisteredMixin>> parseTasks = null;
+        if (executor != null) {
+            parseTasks = new HashMap<String, Future<RegisteredMixin>>();
+            for (String mixin : config.mixins) {
+                final ModularityAttached<M, String> mixinRef = new ModularityAttached<M, String>(attachment, config.mixinPackage + "/" + mixin);
+                parseTasks.put(mixin, executor.submit(new Callable<RegisteredMixin>() {
+                    @Override
+                    public RegisteredMixin call() throws ClassNotFoundException {
+                        return MixinTransformer.this.parseMixin(mixinRef, config.priority, new StringBuilder());
+                    }
+                }));
             }
-            this.mixins.put(mixinRef, config);
-            try {
-                ClassNode node = bytecodeProvider.getClassNode(attachment, mixinRef.value);
-                MixinStub stub = MixinStub.parse(config.priority, node, this, sharedBuilder);
-                this.mixinNodes.put(mixinRef, node);
-                this.mixinStubs.put(mixinRef, stub);
-                Set<String> targets = new HashSet<String>();
-                for (String desc : stub.header.targets) {
-                    if (!targets.add(desc)) {
-                        continue;
+        }
+        StringBuilder sharedBuilder = new StringBuilder();
+        try {
+            // FIXME unregister registered stuff if it fails
+            for (String mixin : config.mixins) {
+                ModularityAttached<M, String> mixinRef = new ModularityAttached<M, String>(attachment, config.mixinPackage + "/" + mixin);
+                if (this.mixins.containsKey(mixinRef)) {
+                    throw new IllegalStateException("Two mixin configurations within the same modularity attachment (" + attachment + ") use the same class (" + mixinRef.value + ").");
+                }
+                this.mixins.put(mixinRef, config);
+                try {
+                    RegisteredMixin registered;
+                    if (parseTasks == null) {
+                        registered = this.parseMixin(mixinRef, config.priority, sharedBuilder);
+                    } else {
+                        registered = MixinTransformer.awaitParse(Objects.requireNonNull(parseTasks.get(mixin)));
                     }
-                    TreeSet<MixinStub> val = this.mixinTargets.get(desc);
-                    if (val == null) {
-                        val = new TreeSet<MixinStub>();
-                        this.mixinTargets.put(desc, val);
+                    MixinStub stub = registered.stub;
+                    if (stub != null) {
+                        this.mixinNodes.put(mixinRef, stub.sourceNode);
+                        this.mixinStubs.put(mixinRef, stub);
                     }
-                    val.add(stub);
+                    Set<String> targets = new HashSet<String>();
+                    for (String desc : registered.header.targets) {
+                        if (!targets.add(desc)) {
+                            continue;
+                        }
+                        SortedSet<RegisteredMixin> old = this.mixinTargets.get(desc);
+                        TreeSet<RegisteredMixin> val;
+                        if (old == null) {
+                            val = new TreeSet<RegisteredMixin>();
+                        } else {
+                            val = new TreeSet<RegisteredMixin>(old);
+                        }
+                        val.add(registered);
+                        this.mixinTargets.put(desc, Collections.unmodifiableSortedSet(val));
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Broken mixin: " + mixinRef.value + " (attached via " + attachment + ")", e);
+                } catch (MixinParseException e) {
+                    throw new IllegalStateException("Broken mixin: " + mixinRef.value + " (attached via " + attachment + ")", e);
+                }
+            }
+        } finally {
+            if (parseTasks != null) {
+                // Only has an effect if we bail out early
+                for (Future<RegisteredMixin> task : parseTasks.values()) {
+                    task.cancel(true);
                 }
-            } catch (ClassNotFoundException e) {
-                throw new IllegalStateException("Broken mixin: " + mixinRef.value + " (attached via " + attachment + ")", e);
-            } catch (MixinParseException e) {
-                throw new IllegalStateException("Broken mixin: " + mixinRef.value + " (attached via " + attachment + ")", e);
+            }
+            if (metrics != null) {
+                metrics.record(MixinMetrics.Phase.CONFIG_PARSE, config.mixinPackage, System.nanoTime() - start);
             }
         }
     }
@@ -137,11 +407,32 @@ public class MixinTransformer<M> {
         return this.logger;
     }
 
+    /**
+     * Obtains the {@link MixinMetrics} the transformation process is recorded to.
+     * See {@link #setMetrics(MixinMetrics)}.
+     *
+     * @return The metrics in use, or null if no metrics are recorded.
+     */
+    @Nullable
+    public MixinMetrics getMetrics() {
+        return this.metrics;
+    }
+
     @NotNull
     public ClassWrapperPool getPool() {
         return this.pool;
     }
 
+    /**
+     * Returns whether methods that were not modified by any mixin are copied verbatim from the input class file
+     * when transforming class files. See {@link #setCopyUntouchedMethods(boolean)}.
+     *
+     * @return True if untouched methods are copied, false otherwise.
+     */
+    public boolean isCopyingUntouchedMethods() {
+        return this.copyUntouchedMethods;
+    }
+
     public boolean isDelayingParseExceptions() {
         return this.delayParseExceptions;
     }
@@ -183,6 +474,89 @@ public class MixinTransformer<M> {
         return this.mixinTargets.containsKey(name);
     }
 
+    @NotNull
+    private byte[] getCacheKey(@NotNull byte[] in, @NotNull Iterable<RegisteredMixin> mixins) {
+        MessageDigest digest = MixinTransformer.newDigest();
+        int flags = (this.mergeClassFileVersions ? 1 : 0) | (this.copyUntouchedMethods ? 2 : 0);
+        digest.update(new byte[] {(byte) MixinTransformer.CACHE_KEY_VERSION, (byte) flags});
+        digest.update(in);
+        for (RegisteredMixin mixin : mixins) {
+            int priority = mixin.header.priority;
+            digest.update(mixin.getFingerprint());
+            digest.update(new byte[] {(byte) (priority >>> 24), (byte) (priority >>> 16), (byte) (priority >>> 8), (byte) priority});
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Obtains the {@link TransformationCache} used when transforming class files.
+     * See {@link #setTransformationCache(TransformationCache)}.
+     *
+     * @return The cache in use, or null if no cache is used.
+     */
+    @Nullable
+    public TransformationCache getTransformationCache() {
+        return this.transformationCache;
+    }
+
+    /**
+     * Returns whether mixins registered through {@link #addMixin(Object, MixinConfig)} are parsed lazily.
+     * See {@link #setParseMixinsLazily(boolean)}.
+     *
+     * @return True if mixins are parsed lazily, false otherwise.
+     */
+    public boolean isParsingMixinsLazily() {
+        return this.parseMixinsLazily;
+    }
+
+    @NotNull
+    private RegisteredMixin parseMixin(@NotNull ModularityAttached<M, String> mixinRef, int defaultPriority, @NotNull StringBuilder sharedBuilder) throws ClassNotFoundException {
+        if (this.parseMixinsLazily) {
+            MixinHeader header;
+            if (this.bytecodeProvider instanceof RawBytecodeProvider) {
+                byte[] classFile = ((RawBytecodeProvider<M>) this.bytecodeProvider).getClassBytes(mixinRef.attachment, mixinRef.value);
+                header = MixinHeader.parse(classFile, defaultPriority);
+            } else {
+                // The node is discarded so it can be garbage collected until the mixin is needed
+                header = MixinHeader.parse(this.bytecodeProvider.getClassNode(mixinRef.attachment, mixinRef.value), defaultPriority);
+            }
+            return new RegisteredMixin(mixinRef, defaultPriority, header, null);
+        }
+        ClassNode node = this.bytecodeProvider.getClassNode(mixinRef.attachment, mixinRef.value);
+        MixinStub stub = this.parseStub(mixinRef, defaultPriority, node, sharedBuilder);
+        return new RegisteredMixin(mixinRef, defaultPriority, stub.header, stub);
+    }
+
+    @NotNull
+    private MixinStub parseStub(@NotNull ModularityAttached<M, String> mixinRef, int defaultPriority, @NotNull ClassNode node, @NotNull StringBuilder sharedBuilder) {
+        MixinMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return MixinStub.parse(defaultPriority, node, this, sharedBuilder);
+        }
+        long start = System.nanoTime();
+        try {
+            return MixinStub.parse(defaultPriority, node, this, sharedBuilder);
+        } finally {
+            metrics.record(MixinMetrics.Phase.STUB_PARSE, mixinRef.value, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sets whether methods that were not modified by any mixin should be copied verbatim from the input class file
+     * when transforming class files through {@link #transform(Object, String, byte[])} or
+     * {@link #transformAllBytes(Collection, ExecutorService)}. If enabled, the constant pool of the input class file
+     * is retained and stack map frames are only computed for modified or added methods, which significantly reduces
+     * the cost of writing large classes where only few methods are transformed. The order of methods within
+     * the class file is however not retained.
+     *
+     * <p>Defaults to true.
+     *
+     * @param copyUntouchedMethods True to copy untouched methods, false to always reassemble the entire class.
+     */
+    public void setCopyUntouchedMethods(boolean copyUntouchedMethods) {
+        this.copyUntouchedMethods = copyUntouchedMethods;
+    }
+
     public void setDelayParseExceptions(boolean delayParseExceptions) {
         this.delayParseExceptions = delayParseExceptions;
     }
@@ -191,20 +565,107 @@ public class MixinTransformer<M> {
         this.logger = logger;
     }
 
+    /**
+     * Sets whether mixins registered through {@link #addMixin(Object, MixinConfig)} should be parsed lazily.
+     * Lazily parsed mixins only have their @Mixin annotation (that is, their targets and their priority)
+     * read at registration time. The remainder of the mixin is parsed when one of its targets is first
+     * {@link #transform(ClassNode) transformed}, at which point errors in the mixin will be reported.
+     *
+     * <p>If the {@link BytecodeProvider} of this transformer is a {@link RawBytecodeProvider}, the @Mixin annotation
+     * is read directly from the class file without parsing any fields or methods. Otherwise the
+     * {@link ClassNode} is requested from the provider at registration time and then discarded,
+     * meaning that it will be requested a second time once the mixin is needed.
+     *
+     * <p>Changing this setting only affects mixins that are registered afterwards.
+     * Defaults to the value of the "org.stianloader.micromixin.lazyParsing" system property.
+     *
+     * @param parseMixinsLazily True to parse mixins lazily, false to parse them at registration time.
+     */
+    public void setParseMixinsLazily(boolean parseMixinsLazily) {
+        this.parseMixinsLazily = parseMixinsLazily;
+    }
+
+    /**
+     * Sets the {@link TransformationCache} to use when transforming class files through {@link #transform(Object, String, byte[])}
+     * or {@link #transformAllBytes(Collection, ExecutorService)}. Cached class files are keyed by a digest of the input class file,
+     * the class files of all mixins applied to it and the relevant settings of this transformer.
+     * On a cache hit, neither the class nor the mixins are parsed and no transformation takes place.
+     *
+     * <p>{@link #transform(ClassNode)} does not make use of the cache.
+     *
+     * @param transformationCache The cache to use, or null to disable caching.
+     */
+    public void setTransformationCache(@Nullable TransformationCache transformationCache) {
+        this.transformationCache = transformationCache;
+    }
+
+    /**
+     * Sets the {@link MixinMetrics} to record the time spent within the individual phases of the transformation process to.
+     * The metrics are also passed on to the {@link ClassWrapperPool} of this transformer via {@link ClassWrapperPool#setMetrics(MixinMetrics)}.
+     * Metrics are not recorded by default. When not recording metrics, no timing overhead is incurred.
+     *
+     * @param metrics The metrics to record to, or null to stop recording metrics.
+     */
+    public void setMetrics(@Nullable MixinMetrics metrics) {
+        this.metrics = metrics;
+        this.pool.setMetrics(metrics);
+    }
+
     public void setMergeClassFileVersions(boolean mergeClassFileVersions) {
         this.mergeClassFileVersions = mergeClassFileVersions;
     }
 
+    /**
+     * Transforms a class file. This is a convenience method for integrators that operate on class files
+     * directly, as it avoids parsing classes that are not targeted by any mixin altogether.
+     * Targeted classes are parsed, {@link #transform(ClassNode) transformed} and serialized with
+     * recomputed stack map frames, where common super classes are resolved through the {@link ClassWrapperPool}
+     * of this transformer instead of through reflection.
+     *
+     * @param attachment The modularity attachment of the transformed class. Currently unused.
+     * @param name The internal name of the class
+     * @param in The class file of the class
+     * @return The transformed class file, or <code>in</code> (the very same array instance) if the class
+     * is not targeted by any mixin.
+     */
+    @NotNull
+    public byte[] transform(M attachment, @NotNull String name, @NotNull byte[] in) {
+        SortedSet<RegisteredMixin> mixins = this.mixinTargets.get(name);
+        if (mixins == null) {
+            return in;
+        }
+        return this.transformClassFile(in, mixins);
+    }
+
     public void transform(@NotNull ClassNode in) {
-        Iterable<MixinStub> mixins = mixinTargets.get(in.name);
+        Iterable<RegisteredMixin> mixins = this.mixinTargets.get(in.name);
         if (mixins == null) {
             return;
         }
+        this.transform(in, mixins);
+    }
+
+    private void transform(@NotNull ClassNode in, @NotNull Iterable<RegisteredMixin> mixins) {
+        MixinMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
+        Object transformEvent = MixinEvents.beginTransform();
+        int mixinCount = 0;
         HandlerContextHelper hctx = HandlerContextHelper.from(in);
+        hctx.metrics = metrics;
         StringBuilder sharedBuilder = new StringBuilder();
-        for (MixinStub stub : mixins) {
+        for (RegisteredMixin mixin : mixins) {
+            MixinStub stub = mixin.getStub();
+            long stubStart = metrics == null ? 0L : System.nanoTime();
+            Object stubEvent = MixinEvents.beginStubApply();
             try {
                 stub.applyTo(in, hctx, sharedBuilder);
+                if (metrics != null) {
+                    metrics.record(MixinMetrics.Phase.STUB_APPLY, mixin.mixinRef.value, System.nanoTime() - stubStart);
+                }
+                if (stubEvent != null) {
+                    MixinEvents.endStubApply(stubEvent, in.name, mixin.mixinRef.value);
+                }
+                mixinCount++;
             } catch (Throwable t) {
                 if (t instanceof Error && !(t instanceof AssertionError)) {
                     throw (Error) t;
@@ -245,5 +706,165 @@ public class MixinTransformer<M> {
                 this.getLogger().info(MixinTransformer.class, "Disassembled class file:\n", sw);
             }
         }
+        if (metrics != null) {
+            metrics.record(MixinMetrics.Phase.TARGET_TRANSFORM, in.name, System.nanoTime() - start);
+        }
+        if (transformEvent != null) {
+            MixinEvents.endTransform(transformEvent, in.name, mixinCount);
+        }
+    }
+
+    @NotNull
+    private byte[] transformClassFile(@NotNull byte[] in, @NotNull Iterable<RegisteredMixin> mixins) {
+        TransformationCache cache = this.transformationCache;
+        byte[] cacheKey = null;
+        if (cache != null) {
+            cacheKey = this.getCacheKey(in, mixins);
+            byte[] cached = cache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ClassReader reader = new ClassReader(in);
+        ClassNode node = new ClassNode();
+        reader.accept(node, 0);
+        byte[] out;
+        if (this.copyUntouchedMethods) {
+            UntouchedMethodCopier copier = new UntouchedMethodCopier(reader, node);
+            this.transform(node, mixins);
+            out = copier.write(node, this.pool);
+        } else {
+            this.transform(node, mixins);
+            ClassWriter writer = new PoolAwareClassWriter(ClassWriter.COMPUTE_FRAMES, this.pool, node);
+            node.accept(writer);
+            out = writer.toByteArray();
+        }
+
+        if (cache != null && cacheKey != null) {
+            cache.put(cacheKey, out);
+        }
+        return out;
+    }
+
+    /**
+     * Transforms all supplied {@link ClassNode ClassNodes} that are targeted by at least one mixin
+     * in parallel using the given {@link ExecutorService}. Transformation happens in-place, as with
+     * {@link #transform(ClassNode)}. Classes that are not targeted by any mixin are skipped.
+     *
+     * <p>Any {@link ExecutorService} can be used, including a <code>java.util.concurrent.ForkJoinPool</code>
+     * on Java 7 and above. The executor is not shut down by this method.
+     *
+     * @param nodes The nodes to transform. No two nodes may share the same name.
+     * @param executor The executor to run the transformations on
+     * @return The successfully transformed nodes as well as the failures, keyed by the internal class name.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for the transformations to complete.
+     */
+    @NotNull
+    public BatchTransformationResult<ClassNode> transformAll(@NotNull Collection<ClassNode> nodes, @NotNull ExecutorService executor) throws InterruptedException {
+        Map<String, ClassNode> targets = new LinkedHashMap<String, ClassNode>();
+        for (ClassNode node : nodes) {
+            if (this.isMixinTarget(node.name) && targets.put(node.name, node) != null) {
+                throw new IllegalArgumentException("Duplicate class in batch: " + node.name);
+            }
+        }
+        Map<String, Future<ClassNode>> tasks = new LinkedHashMap<String, Future<ClassNode>>();
+        for (final ClassNode node : targets.values()) {
+            tasks.put(node.name, executor.submit(new Callable<ClassNode>() {
+                @Override
+                public ClassNode call() {
+                    MixinTransformer.this.transform(node);
+                    return node;
+                }
+            }));
+        }
+        return MixinTransformer.awaitBatch(tasks, new LinkedHashMap<String, Throwable>());
+    }
+
+    /**
+     * Transforms all supplied {@link ClassNode ClassNodes} that are targeted by at least one mixin
+     * in parallel using a temporary thread pool of the given size. See {@link #transformAll(Collection, ExecutorService)}.
+     *
+     * @param nodes The nodes to transform. No two nodes may share the same name.
+     * @param parallelism The amount of threads to use
+     * @return The successfully transformed nodes as well as the failures, keyed by the internal class name.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for the transformations to complete.
+     */
+    @NotNull
+    public BatchTransformationResult<ClassNode> transformAll(@NotNull Collection<ClassNode> nodes, int parallelism) throws InterruptedException {
+        ExecutorService executor = MixinTransformer.createBatchExecutor(parallelism);
+        try {
+            return this.transformAll(nodes, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Transforms all supplied class files that are targeted by at least one mixin in parallel
+     * using the given {@link ExecutorService}. Whether a class is targeted is determined from the
+     * class file header alone, so classes that are not targeted are never fully parsed.
+     * Transformed classes are serialized with recomputed stack map frames, where
+     * the common super classes are resolved through the {@link ClassWrapperPool} of this transformer.
+     *
+     * <p>Any {@link ExecutorService} can be used, including a <code>java.util.concurrent.ForkJoinPool</code>
+     * on Java 7 and above. The executor is not shut down by this method.
+     *
+     * <p>Class files whose header cannot be read are reported as failures. As their name is unknown, they are keyed by
+     * "&lt;malformed class file #<i>n</i>&gt;" instead, where <i>n</i> is the position of the class file within the collection.
+     *
+     * @param classes The class files to transform. No two class files may define the same class.
+     * @param executor The executor to run the transformations on
+     * @return The transformed class files as well as the failures, keyed by the internal class name.
+     * Classes that are not targeted by any mixin are not included in the result and should be used as-is.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for the transformations to complete.
+     */
+    @NotNull
+    public BatchTransformationResult<byte[]> transformAllBytes(@NotNull Collection<byte[]> classes, @NotNull ExecutorService executor) throws InterruptedException {
+        Map<String, byte[]> targets = new LinkedHashMap<String, byte[]>();
+        Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        int position = -1;
+        for (byte[] in : classes) {
+            position++;
+            String name;
+            try {
+                name = new ClassReader(in).getClassName();
+            } catch (RuntimeException e) {
+                failures.put("<malformed class file #" + position + ">", e);
+                continue;
+            }
+            if (this.isMixinTarget(name) && targets.put(name, in) != null) {
+                throw new IllegalArgumentException("Duplicate class in batch: " + name);
+            }
+        }
+        Map<String, Future<byte[]>> tasks = new LinkedHashMap<String, Future<byte[]>>();
+        for (final Map.Entry<String, byte[]> target : targets.entrySet()) {
+            tasks.put(target.getKey(), executor.submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() {
+                    return MixinTransformer.this.transform(null, target.getKey(), target.getValue());
+                }
+            }));
+        }
+        return MixinTransformer.awaitBatch(tasks, failures);
+    }
+
+    /**
+     * Transforms all supplied class files that are targeted by at least one mixin
+     * in parallel using a temporary thread pool of the given size. See {@link #transformAllBytes(Collection, ExecutorService)}.
+     *
+     * @param classes The class files to transform. No two class files may define the same class.
+     * @param parallelism The amount of threads to use
+     * @return The transformed class files as well as the failures, keyed by the internal class name.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for the transformations to complete.
+     */
+    @NotNull
+    public BatchTransformationResult<byte[]> transformAllBytes(@NotNull Collection<byte[]> classes, int parallelism) throws InterruptedException {
+        ExecutorService executor = MixinTransformer.createBatchExecutor(parallelism);
+        try {
+            return this.transformAllBytes(classes, executor);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,25 @@
+package org.stianloader.micromixin.transform;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link BytecodeProvider} that is additionally able to provide the unparsed class files.
+ * This allows the {@link MixinTransformer} to only read the parts of a class file it needs,
+ * for example when {@link MixinTransformer#setParseMixinsLazily(boolean) parsing mixins lazily}.
+ *
+ * @param <M> The type of the modularity attachment. See {@link BytecodeProvider}.
+ */
+public interface RawBytecodeProvider<M> extends BytecodeProvider<M> {
+
+    /**
+     * Obtains the contents of the class file of the given class.
+     * The returned array may not be modified afterwards.
+     *
+     * @param modularityAttachment The modularity attachment
+     * @param internalName The internal name of the class
+     * @return The class file as a byte array
+     * @throws ClassNotFoundException If the class does not exist
+     */
+    @NotNull
+    byte[] getClassBytes(M modularityAttachment, @NotNull String internalName) throws ClassNotFoundException;
+}
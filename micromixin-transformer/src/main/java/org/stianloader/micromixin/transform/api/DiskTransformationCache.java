@@ -0,0 +1,263 @@
+package org.stianloader.micromixin.transform.api;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link TransformationCache} that stores each entry as a separate file within a directory.
+ *
+ * <p>Entries are written to a temporary file first and then renamed, so readers never observe partially
+ * written entries. Each entry carries a SHA-256 digest of its contents, entries that fail validation are
+ * treated as missing and are deleted. Once the total size of all entries exceeds the configured limit,
+ * the least recently used entries are evicted. The recency of entries is persisted through the modification
+ * time of the files, which allows the cache to be reused by subsequent launches.
+ *
+ * <p>Multiple instances should not operate on the same directory at the same time, as the size accounting
+ * is done in memory.
+ */
+public class DiskTransformationCache implements TransformationCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 32 + 4;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int MAGIC = 0x4D4D5443; // "MMTC"
+    private static final String SUFFIX = ".mmtc";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @NotNull
+    private static String toHex(@NotNull byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = DiskTransformationCache.HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+            out[i * 2 + 1] = DiskTransformationCache.HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        return new String(out);
+    }
+
+    @NotNull
+    private static byte[] digest(@NotNull byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported by all JVMs", e);
+        }
+    }
+
+    @NotNull
+    private final File directory;
+    /**
+     * The size of all entries, in access order. Guarded by this.
+     */
+    @NotNull
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75F, true);
+    private final long maxSize;
+    @NotNull
+    private final AtomicLong tempFileCounter = new AtomicLong();
+    /**
+     * The total size of all entries in bytes. Guarded by this.
+     */
+    private long totalSize;
+
+    /**
+     * Constructor. Opens or creates a cache within the given directory.
+     *
+     * @param directory The directory to store the entries in. Created if it does not exist.
+     * @param maxSize The maximum total size of all entries in bytes
+     * @throws IOException If the directory could not be created
+     */
+    public DiskTransformationCache(@NotNull File directory, long maxSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create cache directory: " + directory);
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list cache directory: " + directory);
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                long m1 = o1.lastModified();
+                long m2 = o2.lastModified();
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        synchronized (this) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(DiskTransformationCache.TEMP_SUFFIX)) {
+                    // Leftover from an interrupted write
+                    file.delete();
+                } else if (name.endsWith(DiskTransformationCache.SUFFIX)) {
+                    long size = file.length();
+                    this.entries.put(name, size);
+                    this.totalSize += size;
+                }
+            }
+            this.evict();
+        }
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(@NotNull byte[] key) {
+        String name = DiskTransformationCache.toHex(key) + DiskTransformationCache.SUFFIX;
+        synchronized (this) {
+            if (this.entries.get(name) == null) {
+                return null;
+            }
+        }
+        File file = new File(this.directory, name);
+        byte[] value = DiskTransformationCache.read(file);
+        if (value == null) {
+            this.discard(name, file);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return value;
+    }
+
+    /**
+     * Discards an entry that failed validation. The file is renamed aside and validated again before it is deleted,
+     * as the entry may have been rewritten by {@link #put(byte[], byte[])} since it was read. A valid file is moved back
+     * instead, so that only the file that actually failed validation is deleted.
+     *
+     * @param name The name of the entry
+     * @param file The file of the entry
+     */
+    private void discard(@NotNull String name, @NotNull File file) {
+        File aside = new File(this.directory, name + '.' + this.tempFileCounter.incrementAndGet() + DiskTransformationCache.TEMP_SUFFIX);
+        // Entries are only renamed while holding the lock, so the accounting matches the renamed file
+        synchronized (this) {
+            if (!file.renameTo(aside)) {
+                // The entry was evicted or discarded concurrently
+                return;
+            }
+            Long size = this.entries.remove(name);
+            if (size != null) {
+                this.totalSize -= size;
+            }
+        }
+        if (DiskTransformationCache.read(aside) != null) {
+            long size = aside.length();
+            synchronized (this) {
+                if (!file.exists() && aside.renameTo(file)) {
+                    Long oldSize = this.entries.put(name, size);
+                    this.totalSize += size - (oldSize == null ? 0 : oldSize);
+                    this.evict();
+                    return;
+                }
+            }
+        }
+        aside.delete();
+    }
+
+    /**
+     * Obtains the total size of all entries in bytes.
+     *
+     * @return The size of the cache
+     */
+    public synchronized long getSize() {
+        return this.totalSize;
+    }
+
+    /**
+     * Evicts the least recently used entries until the total size is within limits.
+     * Must only be called while holding the lock on this instance.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = this.entries.entrySet().iterator();
+        while (this.totalSize > this.maxSize && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            this.totalSize -= eldest.getValue();
+            new File(this.directory, eldest.getKey()).delete();
+        }
+    }
+
+    @Override
+    public void put(@NotNull byte[] key, @NotNull byte[] value) {
+        String name = DiskTransformationCache.toHex(key) + DiskTransformationCache.SUFFIX;
+        File target = new File(this.directory, name);
+        File temp = new File(this.directory, name + '.' + this.tempFileCounter.incrementAndGet() + DiskTransformationCache.TEMP_SUFFIX);
+        try {
+            DataOutputStream out = new DataOutputStream(new FileOutputStream(temp));
+            try {
+                out.writeInt(DiskTransformationCache.MAGIC);
+                out.writeInt(DiskTransformationCache.FORMAT_VERSION);
+                out.write(DiskTransformationCache.digest(value));
+                out.writeInt(value.length);
+                out.write(value);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        synchronized (this) {
+            if (!temp.renameTo(target)) {
+                // Some platforms do not allow renaming onto existing files.
+                // As entries are content-addressed, an existing entry is equivalent.
+                temp.delete();
+                if (!target.isFile()) {
+                    return;
+                }
+            }
+            long size = target.length();
+            Long oldSize = this.entries.put(name, size);
+            this.totalSize += size - (oldSize == null ? 0 : oldSize);
+            this.evict();
+        }
+    }
+
+    @Nullable
+    private static byte[] read(@NotNull File file) {
+        long fileSize = file.length();
+        if (fileSize < DiskTransformationCache.HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != DiskTransformationCache.MAGIC || in.readInt() != DiskTransformationCache.FORMAT_VERSION) {
+                    return null;
+                }
+                byte[] expectedDigest = new byte[32];
+                in.readFully(expectedDigest);
+                int length = in.readInt();
+                if (length != fileSize - DiskTransformationCache.HEADER_SIZE) {
+                    return null;
+                }
+                byte[] value = new byte[length];
+                in.readFully(value);
+                if (!MessageDigest.isEqual(expectedDigest, DiskTransformationCache.digest(value))) {
+                    return null;
+                }
+                return value;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package org.stianloader.micromixin.transform.api;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opt-in timing metrics of the mixin transformation process, as collected by
+ * {@link org.stianloader.micromixin.transform.MixinTransformer#setMetrics(MixinMetrics)}.
+ *
+ * <p>Each recorded duration is accounted for twice: Once in the total timer of its {@link Phase}
+ * and once in the timer of its key within the phase (for example the name of the mixin or of the target class).
+ * Timers consist of an invocation count as well as the total and the maximum duration. The total timers of the phases
+ * additionally hold a histogram of durations with power-of-two buckets. Each timer is held in a single {@link AtomicLongArray}.
+ * Recording a duration does not allocate once the timer of the key exists.
+ *
+ * <p>As keys such as class names are unbounded, at most {@link #MAX_KEYS_PER_PHASE} keys are tracked per phase.
+ * Durations of further keys are accounted for in the timer of {@link #OVERFLOW_KEY}.
+ *
+ * <p>Instances of this class are thread-safe. Snapshots are not atomic across timers.
+ */
+public class MixinMetrics {
+
+    public enum Phase {
+        /**
+         * The registration of all mixins of a mixin config, keyed by the package of the config.
+         */
+        CONFIG_PARSE,
+        /**
+         * The parsing of a single mixin, keyed by the internal name of the mixin.
+         */
+        STUB_PARSE,
+        /**
+         * The transformation of a class, keyed by the internal name of the target.
+         */
+        TARGET_TRANSFORM,
+        /**
+         * The application of a single mixin to a target, keyed by the internal name of the mixin.
+         */
+        STUB_APPLY,
+        /**
+         * The application of a single mixin annotation to a target, keyed by the class name of the annotation implementation.
+         */
+        ANNOTATION_APPLY,
+        /**
+         * The computation of the local variable frame of an injection point, keyed by the internal name of the target.
+         */
+        LOCALS_CAPTURE,
+        /**
+         * The resolution of a class by a {@link org.stianloader.micromixin.transform.supertypes.ClassWrapperProvider},
+         * keyed by the class name of the provider.
+         */
+        CLASS_RESOLUTION;
+    }
+
+    /**
+     * A point-in-time copy of a timer.
+     */
+    public static class TimerSnapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long maxNanos;
+        private final long totalNanos;
+
+        private TimerSnapshot(@NotNull AtomicLongArray timer) {
+            this.count = timer.get(MixinMetrics.COUNT);
+            this.totalNanos = timer.get(MixinMetrics.TOTAL);
+            this.maxNanos = timer.get(MixinMetrics.MAX);
+            this.buckets = new long[timer.length() - MixinMetrics.BUCKETS];
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = timer.get(MixinMetrics.BUCKETS + i);
+            }
+        }
+
+        /**
+         * Obtains the histogram of this timer. The bucket at index i counts durations of at least 2^(i-1)
+         * and less than 2^i nanoseconds, with bucket 0 counting durations of 0 nanoseconds.
+         * Only the {@link MixinMetrics#getTotal(Phase) total timers} of the phases hold a histogram,
+         * the histogram of the timers of individual keys is empty.
+         *
+         * @return A copy of the histogram buckets
+         */
+        @NotNull
+        @Contract(pure = true, value = "-> new")
+        public long[] getBuckets() {
+            return this.buckets.clone();
+        }
+
+        @Contract(pure = true)
+        public long getCount() {
+            return this.count;
+        }
+
+        @Contract(pure = true)
+        public long getMaxNanos() {
+            return this.maxNanos;
+        }
+
+        /**
+         * Estimates a percentile of the recorded durations. The estimate is the upper bound of the histogram bucket
+         * the percentile falls into, and hence is precise up to a factor of two.
+         *
+         * @param percentile The percentile, between 0 and 1 (inclusive)
+         * @return The estimated duration in nanoseconds, or 0 if no durations were recorded.
+         * @throws IllegalStateException If the timer does not hold a histogram, as is the case for the timers of individual keys
+         */
+        @Contract(pure = true)
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile out of range: " + percentile);
+            }
+            if (this.buckets.length == 0) {
+                throw new IllegalStateException("The timer does not hold a histogram");
+            }
+            long rank = (long) Math.ceil(percentile * this.count);
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank && seen != 0) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, this.maxNanos);
+                }
+            }
+            return 0;
+        }
+
+        @Contract(pure = true)
+        public long getTotalNanos() {
+            return this.totalNanos;
+        }
+    }
+
+    private class MXBeanView implements MixinMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounts() {
+            Map<String, Long> counts = new LinkedHashMap<String, Long>();
+            for (Phase phase : Phase.values()) {
+                counts.put(phase.name(), MixinMetrics.this.totals[phase.ordinal()].get(MixinMetrics.COUNT));
+            }
+            return counts;
+        }
+
+        @Override
+        public Map<String, Long> getNanosByKey(String phase) {
+            Map<String, Long> nanos = new TreeMap<String, Long>();
+            for (Map.Entry<String, AtomicLongArray> e : MixinMetrics.this.timers.get(Phase.valueOf(phase).ordinal()).entrySet()) {
+                nanos.put(e.getKey(), e.getValue().get(MixinMetrics.TOTAL));
+            }
+            return nanos;
+        }
+
+        @Override
+        public long getPoolHits() {
+            return MixinMetrics.this.getPoolHits();
+        }
+
+        @Override
+        public long getPoolMisses() {
+            return MixinMetrics.this.getPoolMisses();
+        }
+
+        @Override
+        public Map<String, Long> getTotalNanos() {
+            Map<String, Long> nanos = new LinkedHashMap<String, Long>();
+            for (Phase phase : Phase.values()) {
+                nanos.put(phase.name(), MixinMetrics.this.totals[phase.ordinal()].get(MixinMetrics.TOTAL));
+            }
+            return nanos;
+        }
+
+        @Override
+        public void reset() {
+            MixinMetrics.this.reset();
+        }
+    }
+
+    /**
+     * The maximum amount of keys that are tracked per phase. The limit may be exceeded slightly if
+     * multiple threads record new keys concurrently.
+     */
+    public static final int MAX_KEYS_PER_PHASE = 1024;
+
+    /**
+     * The key under which the durations of further keys are accounted for once {@link #MAX_KEYS_PER_PHASE} keys are tracked within a phase.
+     */
+    @NotNull
+    public static final String OVERFLOW_KEY = "<other>";
+
+    private static final int BUCKET_COUNT = 64;
+    private static final int BUCKETS = 3;
+    private static final int COUNT = 0;
+    /**
+     * Timers of individual keys only consist of the count, the total and the maximum, without a histogram.
+     */
+    private static final int KEY_TIMER_SIZE = MixinMetrics.BUCKETS;
+    private static final int MAX = 2;
+    private static final int TOTAL = 1;
+    private static final int TOTAL_TIMER_SIZE = MixinMetrics.BUCKETS + MixinMetrics.BUCKET_COUNT;
+
+    private static void record(@NotNull AtomicLongArray timer, long nanos) {
+        timer.incrementAndGet(MixinMetrics.COUNT);
+        timer.addAndGet(MixinMetrics.TOTAL, nanos);
+        long max;
+        do {
+            max = timer.get(MixinMetrics.MAX);
+        } while (nanos > max && !timer.compareAndSet(MixinMetrics.MAX, max, nanos));
+        if (timer.length() != MixinMetrics.KEY_TIMER_SIZE) {
+            timer.incrementAndGet(MixinMetrics.BUCKETS + 64 - Long.numberOfLeadingZeros(nanos));
+        }
+    }
+
+    @NotNull
+    private final AtomicLong poolHits = new AtomicLong();
+    @NotNull
+    private final AtomicLong poolMisses = new AtomicLong();
+    @NotNull
+    private final List<ConcurrentMap<String, AtomicLongArray>> timers;
+    @NotNull
+    private final AtomicLongArray[] totals;
+
+    public MixinMetrics() {
+        int phases = Phase.values().length;
+        this.timers = new ArrayList<ConcurrentMap<String, AtomicLongArray>>(phases);
+        this.totals = new AtomicLongArray[phases];
+        for (int i = 0; i < phases; i++) {
+            this.timers.add(new ConcurrentHashMap<String, AtomicLongArray>());
+            this.totals[i] = new AtomicLongArray(MixinMetrics.TOTAL_TIMER_SIZE);
+        }
+    }
+
+    @Contract(pure = true)
+    public long getPoolHits() {
+        return this.poolHits.get();
+    }
+
+    @Contract(pure = true)
+    public long getPoolMisses() {
+        return this.poolMisses.get();
+    }
+
+    /**
+     * Obtains snapshots of the timers of all keys within a phase. The snapshots do not hold a histogram.
+     *
+     * @param phase The phase
+     * @return An unmodifiable map of all keys to the snapshot of their timer, sorted by key.
+     */
+    @SuppressWarnings("null")
+    @NotNull
+    public Map<String, TimerSnapshot> getTimers(@NotNull Phase phase) {
+        Map<String, TimerSnapshot> snapshots = new TreeMap<String, TimerSnapshot>();
+        for (Map.Entry<String, AtomicLongArray> e : this.timers.get(phase.ordinal()).entrySet()) {
+            snapshots.put(e.getKey(), new TimerSnapshot(e.getValue()));
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Obtains a snapshot of the total timer of a phase.
+     *
+     * @param phase The phase
+     * @return The snapshot of the timer
+     */
+    @NotNull
+    public TimerSnapshot getTotal(@NotNull Phase phase) {
+        return new TimerSnapshot(this.totals[phase.ordinal()]);
+    }
+
+    /**
+     * Records the duration of an operation.
+     *
+     * @param phase The phase the operation belongs to
+     * @param key The key of the operation within the phase, see the documentation of the respective {@link Phase}.
+     * @param nanos The duration of the operation in nanoseconds. Negative durations are clamped to 0.
+     */
+    public void record(@NotNull Phase phase, @NotNull String key, long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        ConcurrentMap<String, AtomicLongArray> timers = this.timers.get(phase.ordinal());
+        AtomicLongArray timer = timers.get(key);
+        if (timer == null) {
+            if (timers.size() >= MixinMetrics.MAX_KEYS_PER_PHASE) {
+                key = MixinMetrics.OVERFLOW_KEY;
+                timer = timers.get(key);
+            }
+        }
+        if (timer == null) {
+            timer = new AtomicLongArray(MixinMetrics.KEY_TIMER_SIZE);
+            AtomicLongArray witness = timers.putIfAbsent(key, timer);
+            if (witness != null) {
+                timer = witness;
+            }
+        }
+        MixinMetrics.record(timer, nanos);
+        MixinMetrics.record(this.totals[phase.ordinal()], nanos);
+    }
+
+    public void recordPoolHit() {
+        this.poolHits.incrementAndGet();
+    }
+
+    public void recordPoolMiss() {
+        this.poolMisses.incrementAndGet();
+    }
+
+    /**
+     * Registers a {@link MixinMetricsMXBean} view of this instance with the platform MBean server.
+     *
+     * @param name The object name to register the bean under, for example "org.stianloader.micromixin:type=MixinMetrics".
+     * @return The object name of the registered bean.
+     * @throws JMException If the name is malformed or the bean could not be registered.
+     */
+    @NotNull
+    public ObjectName registerMBean(@NotNull String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanView(), objectName);
+        return objectName;
+    }
+
+    /**
+     * Discards all recorded metrics.
+     */
+    public void reset() {
+        for (int i = 0; i < this.totals.length; i++) {
+            this.timers.get(i).clear();
+            AtomicLongArray total = this.totals[i];
+            for (int j = 0; j < MixinMetrics.TOTAL_TIMER_SIZE; j++) {
+                total.set(j, 0);
+            }
+        }
+        this.poolHits.set(0);
+        this.poolMisses.set(0);
+    }
+}
@@ -0,0 +1,40 @@
+package org.stianloader.micromixin.transform.api;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link MixinMetrics}. Instances are registered through {@link MixinMetrics#registerMBean(String)}.
+ * All times are reported in nanoseconds, phases are referred to by the {@link Enum#name() name}
+ * of the respective {@link MixinMetrics.Phase}.
+ */
+public interface MixinMetricsMXBean {
+
+    /**
+     * Obtains the amount of timed operations per phase.
+     *
+     * @return A map of phase names to the amount of recorded operations.
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * Obtains the total amount of time spent within a phase, broken down by key (mixin, target class,
+     * annotation type, config or class wrapper provider, depending on the phase).
+     *
+     * @param phase The name of the phase
+     * @return A map of keys to the total time spent on them.
+     */
+    Map<String, Long> getNanosByKey(String phase);
+
+    long getPoolHits();
+
+    long getPoolMisses();
+
+    /**
+     * Obtains the total amount of time spent within each phase.
+     *
+     * @return A map of phase names to the total time spent within them.
+     */
+    Map<String, Long> getTotalNanos();
+
+    void reset();
+}
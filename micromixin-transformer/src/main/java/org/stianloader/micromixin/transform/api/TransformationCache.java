@@ -0,0 +1,36 @@
+package org.stianloader.micromixin.transform.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A cache of transformed class files, keyed by a digest of the untransformed class file and
+ * of all mixins applied to it. As keys are content-addressed, cached values never need to be
+ * invalidated - they simply stop being requested.
+ *
+ * <p>The key does not cover the class hierarchy as seen by the {@link org.stianloader.micromixin.transform.supertypes.ClassWrapperPool}
+ * or custom {@link InjectionPointSelector injection point selectors}. Caches should hence be discarded whenever these change
+ * in a way that would affect the transformation output.
+ *
+ * <p>Implementations must be thread-safe. Failures to read from or write to the cache should not be propagated,
+ * instead a failed read should be treated as a cache miss.
+ */
+public interface TransformationCache {
+
+    /**
+     * Obtains a cached transformed class file.
+     *
+     * @param key The key of the class file
+     * @return The cached class file, or null if no (valid) entry exists for the key.
+     */
+    @Nullable
+    byte[] get(@NotNull byte[] key);
+
+    /**
+     * Stores a transformed class file.
+     *
+     * @param key The key of the class file
+     * @param value The transformed class file
+     */
+    void put(@NotNull byte[] key, @NotNull byte[] value);
+}
@@ -1,8 +1,10 @@
 package org.stianloader.micromixin.transform.internal;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
 import org.stianloader.micromixin.transform.internal.util.smap.MultiplexLineNumberAllocator;
 
 public class HandlerContextHelper {
@@ -12,6 +14,13 @@ public class HandlerContextHelper {
     @NotNull
     public final MultiplexLineNumberAllocator lineAllocator;
     public int handlerCounter = 0;
+    /**
+     * The amount of instructions selected by the injection points of the annotation that is currently being applied.
+     * Set by injectors for diagnostic purposes only.
+     */
+    public int matchedInstructions;
+    @Nullable
+    public MixinMetrics metrics;
 
     public HandlerContextHelper(@NotNull String handlerPrefix, @NotNull MultiplexLineNumberAllocator lineAllocator) {
         this.handlerPrefix = handlerPrefix;
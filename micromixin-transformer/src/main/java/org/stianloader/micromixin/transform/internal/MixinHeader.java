@@ -6,6 +6,10 @@ import java.util.Collections;
 import java.util.List;
 
 import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AnnotationNode;
 import org.objectweb.asm.tree.ClassNode;
@@ -24,6 +28,31 @@ public class MixinHeader {
         this.priority = priority;
     }
 
+    /**
+     * Parses the @Mixin annotation directly from a class file, without reading any fields or methods.
+     *
+     * @param classFile The class file of the mixin
+     * @param defaultPriority The priority to use if the annotation does not define one
+     * @return The parsed header
+     * @throws MixinParseException If the class file does not contain a valid @Mixin annotation
+     */
+    @NotNull
+    public static MixinHeader parse(@NotNull byte[] classFile, int defaultPriority) throws MixinParseException {
+        ClassNode node = new ClassNode(Opcodes.ASM9) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return null;
+            }
+        };
+        new ClassReader(classFile).accept(node, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return MixinHeader.parse(node, defaultPriority);
+    }
+
     @NotNull
     public static MixinHeader parse(@NotNull ClassNode node, int defaultPriority) throws MixinParseException {
         AnnotationNode mixinAnnot = null;
@@ -11,6 +11,7 @@ import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.stianloader.micromixin.transform.MixinTransformer;
 import org.stianloader.micromixin.transform.SimpleRemapper;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
 import org.stianloader.micromixin.transform.internal.annotation.MixinAnnotation;
 import org.stianloader.micromixin.transform.internal.annotation.MixinInjectAnnotation;
 import org.stianloader.micromixin.transform.internal.annotation.MixinModifyArgAnnotation;
@@ -22,6 +23,7 @@ import org.stianloader.micromixin.transform.internal.annotation.MixinUniqueAnnot
 import org.stianloader.micromixin.transform.internal.annotation.VirtualClInitMergeAnnotation;
 import org.stianloader.micromixin.transform.internal.annotation.VirtualConstructorMergeAnnotation;
 import org.stianloader.micromixin.transform.internal.annotation.mixinsextras.MixinExtrasModifyReturnValueAnnotation;
+import org.stianloader.micromixin.transform.internal.util.MixinEvents;
 
 public class MixinMethodStub implements ClassMemberStub {
 
@@ -83,8 +85,20 @@ public class MixinMethodStub implements ClassMemberStub {
     }
 
     public void applyTo(@NotNull ClassNode target, @NotNull HandlerContextHelper hctx, @NotNull MixinStub stub, @NotNull SimpleRemapper remapper, @NotNull StringBuilder sharedBuilder) {
+        MixinMetrics metrics = hctx.metrics;
         for (MixinAnnotation<MixinMethodStub> a : this.annotations) {
-            a.apply(target, hctx, stub, this, remapper, sharedBuilder);
+            Object event = MixinEvents.beginInjectorApply();
+            hctx.matchedInstructions = 0;
+            if (metrics == null) {
+                a.apply(target, hctx, stub, this, remapper, sharedBuilder);
+            } else {
+                long start = System.nanoTime();
+                a.apply(target, hctx, stub, this, remapper, sharedBuilder);
+                metrics.record(MixinMetrics.Phase.ANNOTATION_APPLY, a.getClass().getName(), System.nanoTime() - start);
+            }
+            if (event != null) {
+                MixinEvents.endInjectorApply(event, target.name, stub.sourceNode.name, this.method.name + this.method.desc, a.getClass().getSimpleName(), hctx.matchedInstructions);
+            }
         }
     }
 
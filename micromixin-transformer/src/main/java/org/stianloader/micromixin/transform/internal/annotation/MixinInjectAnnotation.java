@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.TypeReference;
@@ -32,6 +33,7 @@ import org.objectweb.asm.util.Textifier;
 import org.objectweb.asm.util.TraceMethodVisitor;
 import org.stianloader.micromixin.transform.MixinTransformer;
 import org.stianloader.micromixin.transform.SimpleRemapper;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
 import org.stianloader.micromixin.transform.api.SlicedInjectionPointSelector;
 import org.stianloader.micromixin.transform.internal.HandlerContextHelper;
 import org.stianloader.micromixin.transform.internal.MixinMethodStub;
@@ -43,6 +45,7 @@ import org.stianloader.micromixin.transform.internal.selectors.StringSelector;
 import org.stianloader.micromixin.transform.internal.util.ASMUtil;
 import org.stianloader.micromixin.transform.internal.util.CodeCopyUtil;
 import org.stianloader.micromixin.transform.internal.util.DescString;
+import org.stianloader.micromixin.transform.internal.util.MixinEvents;
 import org.stianloader.micromixin.transform.internal.util.Objects;
 import org.stianloader.micromixin.transform.internal.util.PrintUtils;
 import org.stianloader.micromixin.transform.internal.util.commenttable.CommentTable;
@@ -238,6 +241,7 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
             }
         }
 
+        hctx.matchedInstructions = matched.size();
         if (matched.size() < this.require) {
             throw new IllegalStateException("Illegal mixin: " + sourceStub.sourceNode.name + "." + this.injectSource.name + this.injectSource.desc + " requires " + this.require + " injection points but only found " + matched.size() + ".");
         }
@@ -256,7 +260,7 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
             int returnType = method.desc.codePointAt(method.desc.lastIndexOf(')') + 1);
             boolean category2 = ASMUtil.isCategory2(returnType);
             InsnList injected = new InsnList();
-            if (this.captureLocalsEarly(sourceStub.sourceNode, to, method, insn, sharedBuilder)) {
+            if (this.captureLocalsEarly(sourceStub.sourceNode, to, hctx, method, insn, sharedBuilder)) {
                 continue;
             }
             if (returnType != 'V' && category2) {
@@ -292,14 +296,14 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
                 injected.add(new InsnNode(Opcodes.DUP));
                 if ((method.access & Opcodes.ACC_STATIC) != 0) {
                     this.captureArguments(sourceStub, injected, to, method);
-                    this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                    this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                     injected.add(new MethodInsnNode(Opcodes.INVOKESTATIC, to.name, handlerNode.name, handlerNode.desc));
                 } else {
                     injected.add(new VarInsnNode(Opcodes.ALOAD, 0));
                     injected.add(new InsnNode(Opcodes.SWAP));
                     // Now RET, CIR, THIS, CIR
                     this.captureArguments(sourceStub, injected, to, method);
-                    this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                    this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                     injected.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, to.name, handlerNode.name, handlerNode.desc));
                 }
                 injected.add(new InsnNode(ASMUtil.popReturn(handlerNode.desc))); // The official mixin implementation doesn't seem to pop here, but we'll do it anyways as that is more likely to be more stable
@@ -355,14 +359,14 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
                 // Now RET, CIR, CIR
                 if ((method.access & Opcodes.ACC_STATIC) != 0) {
                     this.captureArguments(sourceStub, injected, to, method);
-                    this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                    this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                     injected.add(new MethodInsnNode(Opcodes.INVOKESTATIC, to.name, handlerNode.name, handlerNode.desc));
                 } else {
                     injected.add(new VarInsnNode(Opcodes.ALOAD, 0));
                     injected.add(new InsnNode(Opcodes.SWAP));
                     // Now RET, CIR, THIS, CIR
                     this.captureArguments(sourceStub, injected, to, method);
-                    this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                    this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                     injected.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, to.name, handlerNode.name, handlerNode.desc));
                 }
                 injected.add(new InsnNode(ASMUtil.popReturn(handlerNode.desc))); // The official mixin implementation doesn't seem to pop here, but we'll do it anyways as that is more likely to be more stable
@@ -398,7 +402,7 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
                 injected.add(new InsnNode(this.cancellable ? Opcodes.ICONST_1 : Opcodes.ICONST_0));
                 injected.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, ASMUtil.CALLBACK_INFO_NAME, "<init>", "(Ljava/lang/String;Z)V"));
                 this.captureArguments(sourceStub, injected, to, method);
-                this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                 injected.add(new MethodInsnNode(Opcodes.INVOKESTATIC, to.name, handlerNode.name, handlerNode.desc));
                 injected.add(new InsnNode(ASMUtil.popReturn(handlerNode.desc))); // The official mixin implementation doesn't seem to pop here, but we'll do it anyways as that is more likely to be more stable
                 if (this.cancellable) {
@@ -414,7 +418,7 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
                 injected.add(new VarInsnNode(Opcodes.ALOAD, 0));
                 injected.add(new VarInsnNode(Opcodes.ALOAD, idx));
                 this.captureArguments(sourceStub, injected, to, method);
-                this.captureLocals(sourceStub.sourceNode, to, method, injected, insn, sharedBuilder);
+                this.captureLocals(sourceStub.sourceNode, to, hctx, method, injected, insn, sharedBuilder);
                 injected.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, to.name, handlerNode.name, handlerNode.desc));
                 injected.add(new InsnNode(ASMUtil.popReturn(handlerNode.desc))); // The official mixin implementation doesn't seem to pop here, but we'll do it anyways as that is more likely to be more stable
                 if (this.cancellable) {
@@ -435,18 +439,19 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
      *
      * @param handlerOwner The owner class of the injector source.
      * @param targetClass The ASM {@link ClassNode} representation of the class that is targeted by the mixin
+     * @param hctx The context of the transformation, which holds the metrics to record the capture to
      * @param target The ASM {@link MethodNode} representation of the method that should be transformed by the inject.
      * @param out Instructions generated through the local capture that should be prefixed before the actual injection handling. Intended to load the local variables.
      * @param inspectionTarget The instruction which is targeted by the injection.
      * @param sharedBuilder A shared {@link StringBuilder} instance used to reduce duplicate allocations
      */
-    private void captureLocals(@NotNull ClassNode handlerOwner, @NotNull ClassNode targetClass, @NotNull MethodNode target,
+    private void captureLocals(@NotNull ClassNode handlerOwner, @NotNull ClassNode targetClass, @NotNull HandlerContextHelper hctx, @NotNull MethodNode target,
             @NotNull InsnList out, AbstractInsnNode inspectionTarget, @NotNull StringBuilder sharedBuilder) {
         if (this.locals.equals("NO_CAPTURE")) {
             // Nothing to do
             return;
         }
-        LocalCaptureResult result = LocalsCapture.captureLocals(targetClass, target, Objects.requireNonNull(inspectionTarget), this.transformer.getPool());
+        LocalCaptureResult result = this.captureLocals(targetClass, target, Objects.requireNonNull(inspectionTarget), hctx.metrics);
 
         int initialFrameSize = ASMUtil.getInitialFrameSize(target);
         Frame<BasicValue> frame = result.frame;
@@ -530,6 +535,25 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
         }
     }
 
+    @NotNull
+    private LocalCaptureResult captureLocals(@NotNull ClassNode targetClass, @NotNull MethodNode target, @NotNull AbstractInsnNode inspectionTarget, @Nullable MixinMetrics metrics) {
+        Object event = MixinEvents.beginLocalsCapture();
+        if (metrics == null && event == null) {
+            return LocalsCapture.captureLocals(targetClass, target, inspectionTarget, this.transformer.getPool());
+        }
+        long start = System.nanoTime();
+        try {
+            return LocalsCapture.captureLocals(targetClass, target, inspectionTarget, this.transformer.getPool());
+        } finally {
+            if (metrics != null) {
+                metrics.record(MixinMetrics.Phase.LOCALS_CAPTURE, targetClass.name, System.nanoTime() - start);
+            }
+            if (event != null) {
+                MixinEvents.endLocalsCapture(event, targetClass.name, target.name + target.desc);
+            }
+        }
+    }
+
     /**
      * Handles local capture.
      * This method primarily deals with injectors that ordinarily skip the method to inject very early (such as it is the case
@@ -537,17 +561,18 @@ public final class MixinInjectAnnotation extends MixinAnnotation<MixinMethodStub
      *
      * @param handlerOwner The owner class of the injector source.
      * @param targetClass The ASM {@link ClassNode} representation of the class that is targeted by the mixin
+     * @param hctx The context of the transformation, which holds the metrics to record the capture to
      * @param target The ASM {@link MethodNode} representation of the method that should be transformed by the inject.
      * @param inspectionTarget The instruction which is targeted by the injection.
      * @param sharedBuilder A shared {@link StringBuilder} instance used to reduce duplicate allocations
      * @return True to abort injection (for example with PRINT), false otherwise.
      */
-    private boolean captureLocalsEarly(@NotNull ClassNode handlerOwner, @NotNull ClassNode targetClass, @NotNull MethodNode target, AbstractInsnNode inspectionTarget, @NotNull StringBuilder sharedBuilder) {
+    private boolean captureLocalsEarly(@NotNull ClassNode handlerOwner, @NotNull ClassNode targetClass, @NotNull HandlerContextHelper hctx, @NotNull MethodNode target, AbstractInsnNode inspectionTarget, @NotNull StringBuilder sharedBuilder) {
         if (this.locals.equals("NO_CAPTURE") || this.locals.equals("CAPTURE_FAILHARD")) {
             // Nothing to do, for now
             return false;
         }
-        LocalCaptureResult result = LocalsCapture.captureLocals(targetClass, target, Objects.requireNonNull(inspectionTarget), this.transformer.getPool());
+        LocalCaptureResult result = this.captureLocals(targetClass, target, Objects.requireNonNull(inspectionTarget), hctx.metrics);
         if (this.locals.equals("PRINT")) {
             KeyValueTableSection injectionPointInfo = new KeyValueTableSection();
             CommentTable printTable = new CommentTable().addSection(injectionPointInfo);
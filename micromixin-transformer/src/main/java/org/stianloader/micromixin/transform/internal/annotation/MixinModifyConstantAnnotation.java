@@ -63,6 +63,7 @@ public class MixinModifyConstantAnnotation extends MixinAnnotation<MixinMethodSt
             @NotNull MixinMethodStub source, @NotNull SimpleRemapper remapper, @NotNull StringBuilder sharedBuilder) {
         MethodNode handlerNode = CodeCopyUtil.copyHandler(this.injectSource, sourceStub, to, hctx.handlerPrefix + hctx.handlerCounter++ + "$" + this.injectSource.name, remapper, hctx.lineAllocator);
         Map<AbstractInsnNode, MethodNode> matched = ASMUtil.enumerateTargets(this.selectors, this.slicedAts, to, sourceStub, this.injectSource, this.require, this.expect, this.allow, remapper, sharedBuilder, this.logger);
+        hctx.matchedInstructions = matched.size();
         String argumentType = ASMUtil.getReturnType(this.injectSource.desc);
 
         for (Map.Entry<AbstractInsnNode, MethodNode> entry : matched.entrySet()) {
@@ -172,6 +172,7 @@ public final class MixinRedirectAnnotation extends MixinAnnotation<MixinMethodSt
                 }
             }
         }
+        hctx.matchedInstructions = matched.size();
         if (matched.size() < this.require) {
             throw new IllegalStateException("Illegal mixin: " + sourceStub.sourceNode.name + "." + this.injectSource.name + this.injectSource.desc + " requires " + this.require + " injection points but only found " + matched.size() + ".");
         }
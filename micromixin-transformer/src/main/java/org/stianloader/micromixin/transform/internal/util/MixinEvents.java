@@ -0,0 +1,62 @@
+package org.stianloader.micromixin.transform.internal.util;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hooks for emitting Java Flight Recorder events about the transformation process.
+ *
+ * <p>Each begin method returns an event handle, or null if the event is not recorded.
+ * The corresponding end method must only be called with non-null handles, which allows
+ * callers to avoid computing event payloads while not recording.
+ *
+ * <p>As JFR is not available on Java 6, this implementation never records anything.
+ * It is replaced by the implementation within the Java 11 multi-release overlay.
+ */
+public final class MixinEvents {
+
+    private MixinEvents() {
+        throw new AssertionError();
+    }
+
+    @Nullable
+    @Contract(pure = true, value = "-> null")
+    public static Object beginInjectorApply() {
+        return null;
+    }
+
+    @Nullable
+    @Contract(pure = true, value = "-> null")
+    public static Object beginLocalsCapture() {
+        return null;
+    }
+
+    @Nullable
+    @Contract(pure = true, value = "-> null")
+    public static Object beginStubApply() {
+        return null;
+    }
+
+    @Nullable
+    @Contract(pure = true, value = "-> null")
+    public static Object beginTransform() {
+        return null;
+    }
+
+    public static void endInjectorApply(@NotNull Object event, @NotNull String target, @NotNull String mixin, @NotNull String handler, @NotNull String annotation, int matchedInstructions) {
+        throw new AssertionError();
+    }
+
+    public static void endLocalsCapture(@NotNull Object event, @NotNull String target, @NotNull String method) {
+        throw new AssertionError();
+    }
+
+    public static void endStubApply(@NotNull Object event, @NotNull String target, @NotNull String mixin) {
+        throw new AssertionError();
+    }
+
+    public static void endTransform(@NotNull Object event, @NotNull String target, int mixinCount) {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,52 @@
+package org.stianloader.micromixin.transform.internal.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapper;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * A {@link ClassWriter} that answers {@link #getCommonSuperClass(String, String)} queries through
+ * a {@link ClassWrapperPool} instead of loading classes reflectively.
+ *
+ * <p>As the hierarchy of the class that is being written may differ from the hierarchy
+ * known to the pool (for example because a mixin added interfaces), the written class
+ * is resolved from the supplied {@link ClassNode} instead of the pool.
+ */
+public class PoolAwareClassWriter extends ClassWriter {
+
+    @NotNull
+    private final ClassWrapperPool pool;
+    @Nullable
+    private final ClassNode writtenNode;
+
+    public PoolAwareClassWriter(@Nullable ClassReader reader, int flags, @NotNull ClassWrapperPool pool, @Nullable ClassNode writtenNode) {
+        super(reader, flags);
+        this.pool = pool;
+        this.writtenNode = writtenNode;
+    }
+
+    public PoolAwareClassWriter(int flags, @NotNull ClassWrapperPool pool, @Nullable ClassNode writtenNode) {
+        this(null, flags, pool, writtenNode);
+    }
+
+    @Override
+    protected String getCommonSuperClass(String type1, String type2) {
+        return this.pool.getCommonSuperClass(this.getWrapper(Objects.requireNonNull(type1)), this.getWrapper(Objects.requireNonNull(type2))).getName();
+    }
+
+    @NotNull
+    private ClassWrapper getWrapper(@NotNull String name) {
+        ClassNode node = this.writtenNode;
+        if (node != null && name.equals(node.name)) {
+            String[] interfaces = new String[node.interfaces.size()];
+            node.interfaces.toArray(interfaces);
+            return new ClassWrapper(node.name, node.superName, interfaces, (node.access & Opcodes.ACC_INTERFACE) != 0, this.pool);
+        }
+        return this.pool.get(name);
+    }
+}
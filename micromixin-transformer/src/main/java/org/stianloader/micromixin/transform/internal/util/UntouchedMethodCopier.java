@@ -0,0 +1,154 @@
+package org.stianloader.micromixin.transform.internal.util;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * Serializes a transformed {@link ClassNode} on top of the {@link ClassReader} it was read from.
+ * The constant pool of the original class is kept as-is and methods that were not modified
+ * by the transformation are copied from the original class file without being re-encoded.
+ * Stack map frames and maximum stack sizes are only computed for modified or added methods.
+ *
+ * <p>Modifications are detected by comparing the state of each {@link MethodNode} before and after the
+ * transformation. The comparison assumes that instructions are only ever inserted or removed, but
+ * never altered in-place, which holds true for all micromixin injectors.
+ *
+ * <p>Instances of this class must be created after the {@link ClassNode} was read, but before
+ * it was transformed. Note that untouched methods are emitted after all other methods.
+ */
+public class UntouchedMethodCopier {
+
+    private static class MethodSnapshot {
+        private final int access;
+        @NotNull
+        private final String desc;
+        @Nullable
+        private final List<String> exceptions;
+        @NotNull
+        private final AbstractInsnNode[] instructions;
+        private final int localVariableCount;
+        private final int maxLocals;
+        private final int maxStack;
+        @NotNull
+        private final String name;
+        @Nullable
+        private final String signature;
+        private final int tryCatchBlockCount;
+
+        private MethodSnapshot(@NotNull MethodNode method) {
+            this.access = method.access;
+            this.name = method.name;
+            this.desc = method.desc;
+            this.signature = method.signature;
+            this.exceptions = method.exceptions;
+            this.instructions = method.instructions.toArray();
+            this.maxLocals = method.maxLocals;
+            this.maxStack = method.maxStack;
+            this.localVariableCount = UntouchedMethodCopier.size(method.localVariables);
+            this.tryCatchBlockCount = UntouchedMethodCopier.size(method.tryCatchBlocks);
+        }
+
+        private boolean isUnchanged(@NotNull MethodNode method) {
+            if (method.access != this.access
+                    || !method.name.equals(this.name)
+                    || !method.desc.equals(this.desc)
+                    || !Objects.equals(method.signature, this.signature)
+                    || method.exceptions != this.exceptions
+                    || method.maxLocals != this.maxLocals
+                    || method.maxStack != this.maxStack
+                    || UntouchedMethodCopier.size(method.localVariables) != this.localVariableCount
+                    || UntouchedMethodCopier.size(method.tryCatchBlocks) != this.tryCatchBlockCount
+                    || method.instructions.size() != this.instructions.length) {
+                return false;
+            }
+            int i = 0;
+            for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                if (insn != this.instructions[i++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int size(@Nullable List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private final int originalVersion;
+    @NotNull
+    private final ClassReader reader;
+    @NotNull
+    private final Map<MethodNode, MethodSnapshot> snapshots = new IdentityHashMap<MethodNode, MethodSnapshot>();
+
+    public UntouchedMethodCopier(@NotNull ClassReader reader, @NotNull ClassNode node) {
+        this.reader = reader;
+        this.originalVersion = node.version;
+        for (MethodNode method : node.methods) {
+            this.snapshots.put(method, new MethodSnapshot(method));
+        }
+    }
+
+    @NotNull
+    public byte[] write(@NotNull ClassNode node, @NotNull ClassWrapperPool pool) {
+        final Set<String> untouched = new HashSet<String>();
+        // Stack map frames of copied methods would not match the new class file version
+        if (node.version == this.originalVersion) {
+            for (MethodNode method : node.methods) {
+                MethodSnapshot snapshot = this.snapshots.get(method);
+                if (snapshot != null && snapshot.isUnchanged(method)) {
+                    untouched.add(method.name + method.desc);
+                }
+            }
+        }
+
+        if (untouched.isEmpty()) {
+            ClassWriter writer = new PoolAwareClassWriter(ClassWriter.COMPUTE_FRAMES, pool, node);
+            node.accept(writer);
+            return writer.toByteArray();
+        }
+
+        final ClassWriter writer = new PoolAwareClassWriter(this.reader, ClassWriter.COMPUTE_FRAMES, pool, node);
+        final ClassReader reader = this.reader;
+        node.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if (untouched.contains(name + descriptor)) {
+                    return null;
+                }
+                return super.visitMethod(access, name, descriptor, signature, exceptions);
+            }
+
+            @Override
+            public void visitEnd() {
+                reader.accept(new ClassVisitor(Opcodes.ASM9) {
+                    @Override
+                    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                        if (untouched.contains(name + descriptor)) {
+                            // Returning the MethodWriter as-is allows the ClassReader to copy the method verbatim
+                            return writer.visitMethod(access, name, descriptor, signature, exceptions);
+                        }
+                        return null;
+                    }
+                }, 0);
+                super.visitEnd();
+            }
+        });
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,43 @@
+package org.stianloader.micromixin.transform.supertypes;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * A {@link ClassWrapperProvider} which creates wrappers from raw class files. Only the header of the class file
+ * (the access flags, the superclass and the interfaces) is read, the members of the class are never parsed.
+ * Unlike {@link ReflectionClassWrapperProvider}, no classes are loaded or defined. Unlike {@link ASMClassWrapperProvider},
+ * no {@link org.objectweb.asm.tree.ClassNode} is built.
+ */
+public abstract class ClassHeaderWrapperProvider implements ClassWrapperProvider {
+
+    /**
+     * Obtains the class file of a class.
+     *
+     * @param name The internal name of the class
+     * @return The class file, or null if the class is not known to this provider.
+     * @throws IOException If the class exists but could not be read
+     */
+    @Nullable
+    public abstract byte[] getClassBytes(@NotNull String name) throws IOException;
+
+    @Override
+    @Nullable
+    public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+        byte[] data;
+        try {
+            data = this.getClassBytes(name);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read class " + name, e);
+        }
+        if (data == null) {
+            return null;
+        }
+        ClassReader reader = new ClassReader(data);
+        return new ClassWrapper(name, reader.getSuperName(), reader.getInterfaces(), (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0, pool);
+    }
+}
@@ -1,8 +1,6 @@
 package org.stianloader.micromixin.transform.supertypes;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 import org.jetbrains.annotations.NotNull;
@@ -19,7 +17,28 @@ public class ClassWrapper {
     @Nullable
     private final String superName;
 
-    private Set<String> allInterfacesCache;
+    /**
+     * Whether the wrapper was looked up since the last eviction sweep of the pool went past it.
+     * New wrappers count as referenced, so that they are not evicted right after being resolved.
+     * Accesses are deliberately not synchronized: A lost update merely affects which wrapper is evicted.
+     */
+    boolean referenced = true;
+
+    /**
+     * Lazily computed closure of all implemented interfaces, shared with all classes implementing the same interfaces.
+     * Multiple threads may race to compute the closure, but as the result is always
+     * the same, the race is benign.
+     */
+    @Nullable
+    private volatile InterfaceClosure interfaceClosure;
+
+    /**
+     * Lazily computed {@link ClassWrapperPool#getClassId(String) class IDs} of the superclass chain, indexed by depth:
+     * The first element is the ID of java/lang/Object, the last element the ID of this class. This allows checking
+     * whether a class extends another class by comparing a single element. The race to compute the chain is benign.
+     */
+    @Nullable
+    private volatile int[] superclassChain;
 
     public ClassWrapper(@NotNull String name, @Nullable String superName, @NotNull String[] superInterfaces, boolean isInterface, @NotNull ClassWrapperPool pool) {
         this.name = name;
@@ -35,6 +54,82 @@ public class ClassWrapper {
         }
     }
 
+    /**
+     * Computes the sorted union of multiple sorted arrays and an additional value.
+     *
+     * @param arrays The arrays, which may contain null elements
+     * @param extra The additional value, or -1 for none
+     * @param length The total length of all arrays, plus one if there is an additional value
+     * @return The sorted array of distinct values
+     */
+    @NotNull
+    private static int[] sortedUnion(@NotNull int[][] arrays, int extra, int length) {
+        int[] ids = new int[length];
+        int size = 0;
+        if (extra >= 0) {
+            ids[size++] = extra;
+        }
+        for (int[] array : arrays) {
+            if (array != null) {
+                System.arraycopy(array, 0, ids, size, array.length);
+                size += array.length;
+            }
+        }
+        Arrays.sort(ids);
+        // Remove duplicates, as interfaces are commonly inherited through multiple paths
+        size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[size++] = ids[i];
+            }
+        }
+        if (size != ids.length) {
+            ids = Arrays.copyOf(ids, size);
+        }
+        return ids;
+    }
+
+    /**
+     * Checks whether this class directly extends or implements any of the given classes, or whether its already computed
+     * superclass chain or interface closure was derived from any of them. The interface closure of a class is derived from
+     * the classes of its superclass chain and the interfaces of the closure itself, all of which are recorded by ID,
+     * so this holds even if the wrappers of these supers are no longer held by the pool. Hierarchy information that
+     * was not computed yet is not taken into account, as it will be computed from the pool's current state once it is needed.
+     *
+     * @param classNames The internal names of the classes
+     * @param sortedIds The sorted {@link ClassWrapperPool#getClassId(String) class IDs} of those classes that have an ID
+     * @return True if this class may depend on any of the classes
+     */
+    boolean dependsOnAny(@NotNull Set<String> classNames, @NotNull int[] sortedIds) {
+        String superName = this.superName;
+        if (superName != null && classNames.contains(superName)) {
+            return true;
+        }
+        for (String interfaceName : this.superInterfaces) {
+            if (classNames.contains(interfaceName)) {
+                return true;
+            }
+        }
+        int[] chain = this.superclassChain;
+        if (chain != null) {
+            for (int id : chain) {
+                if (Arrays.binarySearch(sortedIds, id) >= 0) {
+                    return true;
+                }
+            }
+        }
+        InterfaceClosure closure = this.interfaceClosure;
+        if (closure == null) {
+            return false;
+        }
+        for (int id : sortedIds) {
+            if (closure.containsId(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof ClassWrapper) {
@@ -43,38 +138,116 @@ public class ClassWrapper {
         return false;
     }
 
+    /**
+     * Checks whether this class or one of its superclasses is the given class. Interfaces are not taken into account.
+     * Once the superclass chains of both classes are computed, this is a constant-time check.
+     *
+     * @param superclass The wrapper of the class
+     * @return True if the class is part of the superclass chain of this class
+     */
+    boolean extendsClass(@NotNull ClassWrapper superclass) {
+        int[] superChain = superclass.getSuperclassChain();
+        int[] chain = this.getSuperclassChain();
+        int depth = superChain.length - 1;
+        return depth < chain.length && chain[depth] == superChain[depth];
+    }
+
+    /**
+     * Checks whether the superclass chain of this class contains the given class ID.
+     *
+     * @param classId The {@link ClassWrapperPool#getClassId(String) class ID}
+     * @return True if the class is part of the superclass chain of this class
+     */
+    private boolean extendsClass(int classId) {
+        for (int id : this.getSuperclassChain()) {
+            if (id == classId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Obtains all interfaces this class implements.
      * This includes interfaces superclasses have implemented or super-interfaces of interfaces.
      *
      * <p>If this class is an interface, it also includes this class.
      *
+     * <p>The returned set is immutable and shared between all classes that implement the same interfaces.
+     *
      * @return A set of all interfaces implemented by this class or it's supers
      */
-    @SuppressWarnings("null") // In Java 6 there are 
     @NotNull
     public Set<String> getAllImplementatingInterfaces() {
-        Set<String> allInterfacesCache = this.allInterfacesCache;
-        if (allInterfacesCache == null) {
+        return this.getInterfaceClosure();
+    }
+
+    /**
+     * Obtains the interface closure of this class if it was already computed, without computing it otherwise.
+     *
+     * @return The closure, or null if it was not computed yet
+     */
+    @Nullable
+    InterfaceClosure getComputedInterfaceClosure() {
+        return this.interfaceClosure;
+    }
+
+    @NotNull
+    InterfaceClosure getInterfaceClosure() {
+        InterfaceClosure closure = this.interfaceClosure;
+        if (closure == null) {
+            if (!this.itf) {
+                // The closure is derived from the superclasses, which the chain records for dependsOnAny
+                this.getSuperclassChain();
+            }
             String superName = this.superName;
             if (superName == null) {
                 // Probably java/lang/Object
-                this.allInterfacesCache = allInterfacesCache = Collections.emptySet();
-                return allInterfacesCache;
-            }
-
-            allInterfacesCache = new HashSet<String>();
-            for (String interfaceName : getSuperInterfacesName()) {
-                allInterfacesCache.addAll(pool.get(interfaceName).getAllImplementatingInterfaces());
+                closure = this.pool.internInterfaceClosure(new int[0]);
+            } else if (this.superInterfaces.length == 0 && !this.itf) {
+                // Shares the closure of the superclass as-is
+                closure = this.pool.get(superName).getInterfaceClosure();
+            } else {
+                int[][] supers = new int[this.superInterfaces.length + 1][];
+                int length = this.itf ? 1 : 0;
+                for (int i = 0; i < this.superInterfaces.length; i++) {
+                    supers[i] = this.pool.get(this.superInterfaces[i]).getInterfaceClosure().ids;
+                    length += supers[i].length;
+                }
+                if (!this.itf) {
+                    supers[this.superInterfaces.length] = this.pool.get(superName).getInterfaceClosure().ids;
+                    length += supers[this.superInterfaces.length].length;
+                }
+                int[] ids = ClassWrapper.sortedUnion(supers, this.itf ? this.pool.getClassId(this.name) : -1, length);
+                closure = this.pool.internInterfaceClosure(ids);
             }
+            this.interfaceClosure = closure;
+        }
+        return closure;
+    }
 
-            if (itf) {
-                allInterfacesCache.add(name);
+    /**
+     * Obtains the {@link ClassWrapperPool#getClassId(String) class IDs} of the superclass chain of this class,
+     * starting with java/lang/Object and ending with this class.
+     *
+     * @return The chain, which must not be modified
+     */
+    @NotNull
+    int[] getSuperclassChain() {
+        int[] chain = this.superclassChain;
+        if (chain == null) {
+            String superName = this.superName;
+            if (superName == null) {
+                // Probably java/lang/Object
+                chain = new int[] {this.pool.getClassId(this.name)};
             } else {
-                allInterfacesCache.addAll(pool.get(superName).getAllImplementatingInterfaces());
+                int[] superChain = this.pool.get(superName).getSuperclassChain();
+                chain = Arrays.copyOf(superChain, superChain.length + 1);
+                chain[superChain.length] = this.pool.getClassId(this.name);
             }
+            this.superclassChain = chain;
         }
-        return allInterfacesCache;
+        return chain;
     }
 
     @NotNull
@@ -100,6 +273,33 @@ public class ClassWrapper {
         return pool.get(superName);
     }
 
+    /**
+     * Checks whether a type is this class, one of its superclasses or one of the interfaces implemented by this class or its supers.
+     *
+     * <p>Classes are looked up in the precomputed superclass chain, interfaces in the shared
+     * {@link #getAllImplementatingInterfaces() interface closure}. No per-class set of all ancestors is retained.
+     *
+     * @param classId The {@link ClassWrapperPool#getClassId(String) class ID} of the type
+     * @return True if instances of this class are assignable to the type
+     */
+    public boolean hasAncestor(int classId) {
+        return this.extendsClass(classId) || this.getInterfaceClosure().containsId(classId);
+    }
+
+    /**
+     * Checks whether a type is this class, one of its superclasses or one of the interfaces implemented by this class or its supers.
+     * Unlike {@link #hasAncestor(int)}, this method does not assign a class ID to the type.
+     *
+     * @param className The internal name of the type
+     * @return True if instances of this class are assignable to the type
+     */
+    public boolean hasAncestor(@NotNull String className) {
+        // Computing the chain assigns IDs to all superclasses, so a class without an ID cannot be a superclass
+        this.getSuperclassChain();
+        int classId = this.pool.getExistingClassId(className);
+        return classId >= 0 && this.hasAncestor(classId);
+    }
+
     @Override
     public int hashCode() {
         return getName().hashCode();
@@ -1,29 +1,170 @@
 package org.stianloader.micromixin.transform.supertypes;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
 import org.stianloader.micromixin.transform.internal.util.Objects;
 
+/**
+ * A cache of {@link ClassWrapper} instances, which are resolved through {@link ClassWrapperProvider ClassWrapperProviders}
+ * on demand.
+ *
+ * <p>All methods of this class are thread-safe. Lookups of already resolved wrappers do not acquire any locks.
+ * Each class is resolved by at most one thread at a time, other threads requesting the same class
+ * wait for the in-flight resolution to complete instead of querying the providers themselves.
+ * Resolutions of different classes do not block each other.
+ * {@link ClassWrapperProvider} implementations must however be safe to call concurrently.
+ *
+ * <p>By default, every lookup of a class that is not known to any provider consults the providers again.
+ * {@link #setMissTimeout(long, TimeUnit)} enables remembering such classes as missing, so that repeated lookups
+ * of absent classes do not consult the providers again.
+ *
+ * <p>By default, resolved wrappers are retained indefinitely. {@link #setMaximumSize(int)} bounds the size of the pool,
+ * evicting wrappers that were not used recently.
+ */
 public class ClassWrapperPool {
 
+    /**
+     * A cached result of {@link ClassWrapperPool#getCommonSuperClass(ClassWrapper, ClassWrapper)}, keyed by the identity
+     * of the wrappers of both classes. As only wrappers held by the pool are cached, an entry cannot match
+     * once the wrapper of either class was evicted or invalidated.
+     */
+    private static final class CommonSuperClassEntry {
+        @NotNull
+        private final ClassWrapper class1;
+        @NotNull
+        private final ClassWrapper class2;
+        @NotNull
+        private final ClassWrapper result;
+
+        private CommonSuperClassEntry(@NotNull ClassWrapper class1, @NotNull ClassWrapper class2, @NotNull ClassWrapper result) {
+            this.class1 = class1;
+            this.class2 = class2;
+            this.result = result;
+        }
+
+        private boolean matches(@NotNull ClassWrapper class1, @NotNull ClassWrapper class2) {
+            return (this.class1 == class1 && this.class2 == class2) || (this.class1 == class2 && this.class2 == class1);
+        }
+    }
+
+    /**
+     * An in-flight resolution of a single class through the {@link ClassWrapperProvider providers}.
+     */
+    private static final class PendingResolution {
+        @Nullable
+        private Throwable failure;
+        @NotNull
+        private final CountDownLatch latch = new CountDownLatch(1);
+        @NotNull
+        private final Thread owner = Thread.currentThread();
+        @Nullable
+        private ClassWrapper result;
+
+        @Nullable
+        private ClassWrapper await(@NotNull String className) {
+            if (this.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive resolution of class " + className + ". Does a ClassWrapperProvider try to resolve the class it is providing?");
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.latch.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable failure = this.failure;
+            if (failure != null) {
+                throw new IllegalStateException("Resolution of class " + className + " failed in another thread", failure);
+            }
+            return this.result;
+        }
+    }
+
+    /**
+     * The amount of slots of the common superclass cache. Must be a power of two.
+     */
+    private static final int COMMON_SUPER_CLASS_CACHE_SIZE = 4096;
+
+    /**
+     * The names of all class IDs, indexed by ID. Grown while holding the lock on {@link #classIds}.
+     */
+    @NotNull
+    private volatile String[] classNames = new String[64];
+    @NotNull
+    private final Map<String, Integer> classIds = new ConcurrentHashMap<String, Integer>();
+    /**
+     * Direct-mapped cache of common superclasses. Colliding pairs evict each other, which bounds the size of the cache
+     * without requiring any locking. The array is replaced as a whole on invalidation.
+     */
+    @NotNull
+    private volatile AtomicReferenceArray<CommonSuperClassEntry> commonSuperClassCache = new AtomicReferenceArray<CommonSuperClassEntry>(ClassWrapperPool.COMMON_SUPER_CLASS_CACHE_SIZE);
+    /**
+     * Incremented whenever resolved wrappers or recorded misses may have become invalid, see {@link #getGeneration()}.
+     */
+    @NotNull
+    private final AtomicLong generation = new AtomicLong();
+    /**
+     * The names of classes no provider knows, mapped to the {@link System#nanoTime()} of the lookup.
+     */
+    @NotNull
+    private final ConcurrentMap<String, Long> missingClasses = new ConcurrentHashMap<String, Long>();
+    @NotNull
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile int maximumSize = Integer.MAX_VALUE;
+    @Nullable
+    private volatile MixinMetrics metrics;
+    private volatile long missTimeoutNanos;
+    @NotNull
+    private final ConcurrentMap<String, PendingResolution> pendingResolutions = new ConcurrentHashMap<String, PendingResolution>();
+    @NotNull
+    private final ConcurrentMap<InterfaceClosure, InterfaceClosure> interfaceClosures = new ConcurrentHashMap<InterfaceClosure, InterfaceClosure>();
+    @NotNull
+    private final Set<String> pinnedClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     @NotNull
     private final List<ClassWrapperProvider> providers;
-    protected final Map<String, ClassWrapper> wrappers;
+    protected final ConcurrentMap<String, ClassWrapper> wrappers;
 
     public ClassWrapperPool() {
-        this(new ArrayList<ClassWrapperProvider>());
+        this(new CopyOnWriteArrayList<ClassWrapperProvider>());
     }
 
+    /**
+     * Constructor. The passed list of providers will be used as-is. If {@link #addProvider(ClassWrapperProvider)} is
+     * expected to be called while the pool is already in use, the list needs to be thread-safe
+     * (for example a {@link CopyOnWriteArrayList}).
+     *
+     * @param providers The providers to use
+     */
     public ClassWrapperPool(@NotNull List<ClassWrapperProvider> providers) {
-        this.wrappers = new HashMap<String, ClassWrapper>();
+        this.wrappers = new ConcurrentHashMap<String, ClassWrapper>();
         this.wrappers.put("java/lang/Object", new ClassWrapper("java/lang/Object", null, new String[0], false, this));
+        this.pinnedClasses.add("java/lang/Object");
         this.providers = providers;
     }
 
@@ -31,25 +172,68 @@ public class ClassWrapperPool {
     @Contract(mutates = "this", pure = false, value = "null -> fail; !null -> this")
     public ClassWrapperPool addProvider(@NotNull ClassWrapperProvider provider) {
         this.providers.add(Objects.requireNonNull(provider));
+        // The new provider may know classes that were previously missing
+        this.invalidateMisses();
         return this;
     }
 
+    /**
+     * Checks whether instances of a type are assignable to another type.
+     * Every type is assignable to itself, to all its superclasses and to all interfaces it or its supers implement.
+     *
+     * <p>Interfaces are looked up in the shared interface closure of the subtype, which is computed once.
+     * Classes are looked up in the superclass chain of the subtype, which is also computed once and indexed by depth,
+     * so that the check does not involve any lookups afterwards. The interfaces of the subtype do not need
+     * to be resolvable unless the supertype is an interface.
+     *
+     * @param superType The type to assign to
+     * @param subType The type to assign
+     * @return True if subType is assignable to superType
+     */
     public boolean canAssign(ClassWrapper superType, ClassWrapper subType) {
-        final String name = superType.getName();
         if (superType.isInterface()) {
-            return isImplementingInterface(subType, name);
-        } else {
-            while (subType != null) {
-                if (name.equals(subType.getName()) || name.equals(subType.getSuper())) {
-                    return true;
-                }
-                if (subType.getName().equals("java/lang/Object")) {
-                    return false;
+            return subType.getInterfaceClosure().contains(superType.getName());
+        }
+        return subType.extendsClass(superType);
+    }
+
+    /**
+     * Evicts wrappers until the pool is no larger than {@link #setMaximumSize(int) its maximum size} minus
+     * an eighth, so that subsequent insertions do not immediately trigger another eviction.
+     * The eviction follows the second-chance (CLOCK) approximation of LRU: Wrappers that were looked up since
+     * the last sweep are spared once. {@link #pin(String) Pinned} wrappers are never evicted.
+     * If another thread is already evicting, this method returns immediately.
+     *
+     * <p>Cached common superclasses and interned interface closures that refer to evicted wrappers are dropped as well.
+     */
+    private void evict() {
+        int maximumSize = this.maximumSize;
+        if (this.wrappers.size() <= maximumSize || !this.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maximumSize - maximumSize / 8;
+            // Two sweeps suffice, as the first sweep clears the referenced flag of all wrappers it spares
+            for (int sweep = 0; sweep < 2 && this.wrappers.size() > target; sweep++) {
+                Iterator<Map.Entry<String, ClassWrapper>> it = this.wrappers.entrySet().iterator();
+                while (it.hasNext() && this.wrappers.size() > target) {
+                    Map.Entry<String, ClassWrapper> entry = it.next();
+                    ClassWrapper wrapper = entry.getValue();
+                    if (this.pinnedClasses.contains(entry.getKey())) {
+                        continue;
+                    }
+                    if (wrapper.referenced) {
+                        wrapper.referenced = false;
+                    } else {
+                        this.wrappers.remove(entry.getKey(), wrapper);
+                    }
                 }
-                subType = subType.getSuperWrapper();
             }
+            this.pruneCommonSuperClasses();
+            this.pruneInterfaceClosures();
+        } finally {
+            this.evicting.set(false);
         }
-        return false;
     }
 
     @NotNull
@@ -61,6 +245,18 @@ public class ClassWrapperPool {
         throw new IllegalStateException("Wrapper for class not found: " + className);
     }
 
+    /**
+     * Obtains the most specific common superclass of two classes. If either class is an interface and neither class
+     * is assignable to the other, java/lang/Object is returned.
+     *
+     * <p>Results are cached per pair of classes in a bounded cache, as ASM's frame computation tends to request
+     * the same pairs over and over. Only pairs of wrappers held by this pool are cached.
+     * The cache is cleared by {@link #invalidateNameCaches()}, entries involving evicted wrappers are dropped on eviction.
+     *
+     * @param class1 The first class
+     * @param class2 The second class
+     * @return The common superclass of both classes
+     */
     public ClassWrapper getCommonSuperClass(ClassWrapper class1, ClassWrapper class2) {
         if (class1.getName().equals("java/lang/Object")) {
             return class1;
@@ -68,6 +264,32 @@ public class ClassWrapperPool {
         if (class2.getName().equals("java/lang/Object")) {
             return class2;
         }
+
+        if (this.wrappers.get(class1.getName()) != class1 || this.wrappers.get(class2.getName()) != class2) {
+            // Wrappers that are not part of the pool (for example the wrapper of a class that is being written)
+            // may not match the pool's view of the class, so their results must not be cached
+            return this.computeCommonSuperClass(class1, class2);
+        }
+
+        // The hash must not depend on the order of both classes
+        int hash1 = class1.getName().hashCode();
+        int hash2 = class2.getName().hashCode();
+        int hash = Math.min(hash1, hash2) * 0x9E3779B1 + Math.max(hash1, hash2);
+        int slot = (hash ^ (hash >>> 16)) & (ClassWrapperPool.COMMON_SUPER_CLASS_CACHE_SIZE - 1);
+        // The array is obtained before computing the result so that results computed while the cache is invalidated are discarded
+        AtomicReferenceArray<CommonSuperClassEntry> cache = this.commonSuperClassCache;
+        CommonSuperClassEntry entry = cache.get(slot);
+        if (entry != null && entry.matches(class1, class2)) {
+            return entry.result;
+        }
+
+        ClassWrapper result = this.computeCommonSuperClass(class1, class2);
+        cache.set(slot, new CommonSuperClassEntry(class1, class2, result));
+        return result;
+    }
+
+    @NotNull
+    private ClassWrapper computeCommonSuperClass(@NotNull ClassWrapper class1, @NotNull ClassWrapper class2) {
         // isAssignableFrom = class1 = class2;
         if (canAssign(class1, class2)) {
             return class1;
@@ -78,52 +300,425 @@ public class ClassWrapperPool {
         if (class1.isInterface() || class2.isInterface()) {
             return get("java/lang/Object");
         }
-        return getCommonSuperClass(class1, get(Objects.requireNonNull(class2.getSuper())));
+        // The deepest common element of both superclass chains, which is at least java/lang/Object
+        int[] chain1 = class1.getSuperclassChain();
+        int[] chain2 = class2.getSuperclassChain();
+        int depth = 0;
+        while (depth + 1 < chain1.length && depth + 1 < chain2.length && chain1[depth + 1] == chain2[depth + 1]) {
+            depth++;
+        }
+        return this.get(this.getClassName(chain1[depth]));
+    }
+
+    /**
+     * Obtains the ID of a class name. IDs are dense, starting from 0, and are assigned in the order the names
+     * are first requested. IDs are never reassigned for the lifetime of the pool, even if {@link #invalidateNameCaches()}
+     * is called or the wrapper of the class is evicted, as wrappers that are still in use may refer to them.
+     *
+     * <p>Lookups of classes do not assign IDs. The pool itself only assigns IDs to the interfaces of computed interface
+     * closures and to the classes of computed superclass chains, that is to resolved classes involved in
+     * {@link #canAssign(ClassWrapper, ClassWrapper)} checks. Names of missing classes thus never receive an ID.
+     *
+     * @param className The internal name of the class, which does not need to be resolvable
+     * @return The ID of the class name
+     */
+    public int getClassId(@NotNull String className) {
+        Integer id = this.classIds.get(className);
+        if (id == null) {
+            synchronized (this.classIds) {
+                id = this.classIds.get(className);
+                if (id == null) {
+                    id = this.classIds.size();
+                    String[] classNames = this.classNames;
+                    if (id == classNames.length) {
+                        classNames = Arrays.copyOf(classNames, classNames.length * 2);
+                    }
+                    classNames[id] = className;
+                    // Publish the name before the ID, so that the name of any ID obtained from classIds is visible
+                    this.classNames = classNames;
+                    this.classIds.put(className, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Obtains the name of a class ID, as assigned by {@link #getClassId(String)}.
+     *
+     * @param classId The class ID
+     * @return The internal name of the class
+     * @throws IndexOutOfBoundsException If the ID was not assigned by this pool
+     */
+    @NotNull
+    public String getClassName(int classId) {
+        String name = this.classNames[classId];
+        if (name == null) {
+            throw new IndexOutOfBoundsException("Unassigned class ID: " + classId);
+        }
+        return name;
+    }
+
+    /**
+     * Obtains the ID of a class name without assigning a new ID.
+     *
+     * @param className The internal name of the class
+     * @return The ID of the class name, or -1 if no ID was assigned yet.
+     */
+    int getExistingClassId(@NotNull String className) {
+        Integer id = this.classIds.get(className);
+        return id == null ? -1 : id;
+    }
+
+    @NotNull
+    private int[] getExistingClassIds(@NotNull Collection<String> classNames) {
+        int[] ids = new int[classNames.size()];
+        int size = 0;
+        for (String className : classNames) {
+            int id = this.getExistingClassId(className);
+            if (id >= 0) {
+                ids[size++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, size);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Obtains the canonical closure for a sorted set of interface IDs.
+     *
+     * @param ids The sorted IDs of the interfaces, which must not be modified afterwards
+     * @return The shared closure
+     */
+    @NotNull
+    InterfaceClosure internInterfaceClosure(@NotNull int[] ids) {
+        InterfaceClosure closure = new InterfaceClosure(ids, this);
+        InterfaceClosure canonical = this.interfaceClosures.putIfAbsent(closure, closure);
+        return canonical == null ? closure : canonical;
+    }
+
+    /**
+     * Obtains the generation of the pool. The generation is incremented whenever wrappers or misses obtained
+     * from the pool may have become invalid, that is whenever the pool is invalidated or a provider is added.
+     * Callers caching information derived from the pool can compare generations to detect such changes.
+     *
+     * @return The current generation
+     */
+    @Contract(pure = true)
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Invalidates the wrappers of the given classes, as well as the wrappers of all classes extending or implementing them.
+     * Dependents are found transitively, so a class is invalidated even if it only indirectly extends an invalidated class.
+     * Wrappers of unrelated classes are retained, even if the wrappers of their supers were evicted in the meantime.
+     * The invalidated classes are resolved through the providers again on their next lookup.
+     *
+     * <p>This method should be preferred over {@link #invalidateNameCaches()} when only a known set of classes
+     * changed, for example because the classes of a single mod were remapped. Both the old and the new names
+     * of remapped classes should be passed.
+     *
+     * @param classNames The internal names of the classes to invalidate
+     */
+    public void invalidate(@NotNull Collection<String> classNames) {
+        this.invalidateNames(new HashSet<String>(classNames));
+    }
+
+    /**
+     * Invalidates the wrapper of a single class, see {@link #invalidate(Collection)}.
+     *
+     * @param className The internal name of the class to invalidate
+     */
+    public void invalidate(@NotNull String className) {
+        this.invalidate(Collections.singleton(className));
+    }
+
+    private void invalidateNames(@NotNull Set<String> classNames) {
+        // Invalidating the misses first increments the generation, which causes concurrent resolutions to discard their results.
+        this.invalidateMisses();
+        // Removing a wrapper may render the wrappers of its subclasses stale, so wrappers are removed until a fixpoint is reached
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] sortedIds = this.getExistingClassIds(classNames);
+            for (Map.Entry<String, ClassWrapper> entry : this.wrappers.entrySet()) {
+                String className = entry.getKey();
+                ClassWrapper wrapper = entry.getValue();
+                if (className.equals("java/lang/Object")) {
+                    continue;
+                }
+                if (classNames.contains(className) || wrapper.dependsOnAny(classNames, sortedIds)) {
+                    this.wrappers.remove(className, wrapper);
+                    changed |= classNames.add(className);
+                }
+            }
+        }
+        // Cached results may be wrappers that were just removed
+        this.commonSuperClassCache = new AtomicReferenceArray<CommonSuperClassEntry>(ClassWrapperPool.COMMON_SUPER_CLASS_CACHE_SIZE);
+        this.pruneInterfaceClosures();
+    }
+
+    /**
+     * Invalidates the wrappers of all classes whose internal name starts with the given prefix, as well as
+     * the wrappers of all classes extending or implementing them. See {@link #invalidate(Collection)}.
+     *
+     * @param prefix The prefix, for example the internal name of a package followed by a slash
+     */
+    public void invalidatePrefix(@NotNull String prefix) {
+        Set<String> classNames = new HashSet<String>();
+        for (String className : this.wrappers.keySet()) {
+            if (className.startsWith(prefix)) {
+                classNames.add(className);
+            }
+        }
+        // Interface closures may refer to classes whose wrappers are no longer held by the pool
+        for (String className : this.classNames) {
+            if (className != null && className.startsWith(prefix)) {
+                classNames.add(className);
+            }
+        }
+        this.invalidateNames(classNames);
     }
 
     /**
      * Invalidate internal {@link ClassNode} {@link ClassNode#name name} caches.
      * Should be invoked when for example class nodes are remapped, at which point
      * internal caches are no longer valid.
+     *
+     * <p>This discards all wrappers except the one of java/lang/Object. Prefer {@link #invalidate(Collection)} or
+     * {@link #invalidatePrefix(String)} if only some classes changed.
      */
     public void invalidateNameCaches() {
-        this.wrappers.clear();
+        this.invalidateMisses();
+        // Retain java/lang/Object so concurrent lookups never observe it as missing
+        this.wrappers.keySet().retainAll(Collections.singleton("java/lang/Object"));
         this.wrappers.put("java/lang/Object", new ClassWrapper("java/lang/Object", null, new String[0], false, this));
+        this.commonSuperClassCache = new AtomicReferenceArray<CommonSuperClassEntry>(ClassWrapperPool.COMMON_SUPER_CLASS_CACHE_SIZE);
+        // Closures only refer to class IDs and thus stay valid, but closures of remapped classes would otherwise be retained forever
+        this.interfaceClosures.clear();
+    }
+
+    private boolean isHeld(@NotNull ClassWrapper wrapper) {
+        return this.wrappers.get(wrapper.getName()) == wrapper;
+    }
+
+    /**
+     * Forgets all classes that were not known to any provider, causing the providers to be consulted again on the next lookup.
+     * This is done automatically when a provider is added through {@link #addProvider(ClassWrapperProvider)}
+     * and by {@link #invalidateNameCaches()}.
+     */
+    public void invalidateMisses() {
+        this.generation.incrementAndGet();
+        this.missingClasses.clear();
+    }
+
+    /**
+     * Obtains the {@link MixinMetrics} lookups and resolutions are recorded to.
+     *
+     * @return The metrics in use, or null if no metrics are recorded.
+     */
+    @Nullable
+    public MixinMetrics getMetrics() {
+        return this.metrics;
     }
 
     public boolean isImplementingInterface(ClassWrapper clazz, String interfaceName) {
-        if (clazz.getName().equals("java/lang/Object")) {
-            return false;
-        }
-        for (String interfaces : clazz.getSuperInterfacesName()) {
-            if (interfaces.equals(interfaceName)) {
-                return true;
-            } else {
-                if (isImplementingInterface(get(interfaces), interfaceName)) {
-                    return true;
-                }
-            }
-        }
-        if (clazz.isInterface()) {
-            return false;
-        }
-        return isImplementingInterface(clazz.getSuperWrapper(), interfaceName);
+        // The closure of an interface includes the interface itself, which does not count as implemented here
+        return !clazz.getName().equals(interfaceName) && clazz.getInterfaceClosure().contains(interfaceName);
     }
 
     @Nullable
     public ClassWrapper optGet(@NotNull String className) {
         ClassWrapper wrapper = this.wrappers.get(className);
+        MixinMetrics metrics = this.metrics;
         if (wrapper != null) {
+            if (!wrapper.referenced) {
+                wrapper.referenced = true;
+            }
+            if (metrics != null) {
+                metrics.recordPoolHit();
+            }
             return wrapper;
         }
-        for (ClassWrapperProvider provider : this.providers) {
-            wrapper = provider.provide(className, this);
+        Long missedAt = this.missingClasses.get(className);
+        if (missedAt != null) {
+            long timeout = this.missTimeoutNanos;
+            if (timeout == Long.MAX_VALUE || System.nanoTime() - missedAt.longValue() < timeout) {
+                if (metrics != null) {
+                    metrics.recordPoolHit();
+                }
+                return null;
+            }
+        }
+        if (metrics != null) {
+            metrics.recordPoolMiss();
+        }
+
+        PendingResolution resolution = new PendingResolution();
+        PendingResolution witness = this.pendingResolutions.putIfAbsent(className, resolution);
+        if (witness != null) {
+            return witness.await(className);
+        }
+
+        try {
+            // The class may have been resolved between the first lookup and the registration of the pending resolution
+            wrapper = this.wrappers.get(className);
             if (wrapper == null) {
-                continue;
+                long generation = this.generation.get();
+                wrapper = this.resolve(className);
+                if (wrapper != null) {
+                    ClassWrapper canonical = this.wrappers.putIfAbsent(className, wrapper);
+                    if (canonical != null) {
+                        wrapper = canonical;
+                    } else if (this.generation.get() != generation) {
+                        // The pool was invalidated while the class was being resolved, the wrapper may already be stale
+                        this.wrappers.remove(className, wrapper);
+                    } else if (this.maximumSize != Integer.MAX_VALUE) {
+                        this.evict();
+                    }
+                    if (missedAt != null) {
+                        this.missingClasses.remove(className, missedAt);
+                    }
+                } else if (this.missTimeoutNanos != 0L) {
+                    Long now = Long.valueOf(System.nanoTime());
+                    this.missingClasses.put(className, now);
+                    if (this.generation.get() != generation) {
+                        // A provider was added or the pool was invalidated while the class was being resolved
+                        this.missingClasses.remove(className, now);
+                    }
+                }
             }
-            wrappers.put(className, wrapper);
+            resolution.result = wrapper;
             return wrapper;
+        } catch (RuntimeException e) {
+            resolution.failure = e;
+            throw e;
+        } catch (Error e) {
+            resolution.failure = e;
+            throw e;
+        } finally {
+            this.pendingResolutions.remove(className, resolution);
+            resolution.latch.countDown();
+        }
+    }
+
+    @Nullable
+    private ClassWrapper resolve(@NotNull String className) {
+        MixinMetrics metrics = this.metrics;
+        for (ClassWrapperProvider provider : this.providers) {
+            ClassWrapper wrapper;
+            if (metrics == null) {
+                wrapper = provider.provide(className, this);
+            } else {
+                long start = System.nanoTime();
+                try {
+                    wrapper = provider.provide(className, this);
+                } finally {
+                    metrics.record(MixinMetrics.Phase.CLASS_RESOLUTION, provider.getClass().getName(), System.nanoTime() - start);
+                }
+            }
+            if (wrapper != null) {
+                return wrapper;
+            }
         }
         return null;
     }
+
+    /**
+     * Drops cached common superclasses that involve wrappers which are no longer held by the pool.
+     */
+    private void pruneCommonSuperClasses() {
+        AtomicReferenceArray<CommonSuperClassEntry> cache = this.commonSuperClassCache;
+        for (int i = 0; i < cache.length(); i++) {
+            CommonSuperClassEntry entry = cache.get(i);
+            if (entry != null && (!this.isHeld(entry.class1) || !this.isHeld(entry.class2) || !this.isHeld(entry.result))) {
+                cache.compareAndSet(i, entry, null);
+            }
+        }
+    }
+
+    /**
+     * Removes interned interface closures that are no longer used by any wrapper held by the pool.
+     * A closure that is being computed concurrently may be removed before it is stored in its wrapper,
+     * which merely causes an equal closure to not be shared with it.
+     */
+    private void pruneInterfaceClosures() {
+        Set<InterfaceClosure> closures = Collections.newSetFromMap(new IdentityHashMap<InterfaceClosure, Boolean>());
+        for (ClassWrapper wrapper : this.wrappers.values()) {
+            InterfaceClosure closure = wrapper.getComputedInterfaceClosure();
+            if (closure != null) {
+                closures.add(closure);
+            }
+        }
+        this.interfaceClosures.keySet().retainAll(closures);
+    }
+
+    /**
+     * Pins a class, so that its wrapper is never evicted from the pool once resolved.
+     * java/lang/Object is always pinned. Pins are retained by {@link #invalidateNameCaches()}.
+     *
+     * @param className The internal name of the class to pin
+     * @return The current instance, for chaining
+     */
+    @NotNull
+    @Contract(mutates = "this", pure = false, value = "null -> fail; !null -> this")
+    public ClassWrapperPool pin(@NotNull String className) {
+        this.pinnedClasses.add(Objects.requireNonNull(className));
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of wrappers held by the pool. Once the pool grows beyond this size, wrappers that were
+     * not looked up recently are evicted and will be resolved through the providers again when they are needed.
+     * {@link #pin(String) Pinned} wrappers are never evicted, but count towards the size of the pool.
+     * By default, the size of the pool is not bounded.
+     *
+     * <p>Long-lived pools which are used by processes that keep loading classes, such as servers loading plugins,
+     * should set a maximum size so that stale hierarchy information does not remain on the heap indefinitely.
+     *
+     * @param maximumSize The maximum size, or {@link Integer#MAX_VALUE} to not bound the size of the pool
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        if (maximumSize != Integer.MAX_VALUE) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Sets for how long a class that is not known to any {@link ClassWrapperProvider} is remembered as missing.
+     * While a class is remembered as missing, lookups of the class return null without consulting the providers.
+     * By default, missing classes are not remembered at all, so that providers which learn about new classes
+     * over time (for example because the classes are defined by a class loader later on) are always consulted.
+     * Remembering misses is opt-in and worthwhile if absent classes are looked up repeatedly, for example
+     * while computing frames of classes that refer to classes which are not on the classpath.
+     * Remembered misses are discarded by {@link #invalidateMisses()} and whenever a provider is added.
+     *
+     * @param timeout The timeout, 0 to not remember missing classes at all or {@link Long#MAX_VALUE} to remember them indefinitely
+     * @param unit The unit of the timeout
+     */
+    public void setMissTimeout(long timeout, @NotNull TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative, got " + timeout);
+        }
+        this.missTimeoutNanos = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : unit.toNanos(timeout);
+        if (timeout == 0L) {
+            this.invalidateMisses();
+        }
+    }
+
+    /**
+     * Sets the {@link MixinMetrics} to record lookups and resolutions to. Lookups are counted as hits or misses,
+     * and the time spent within each {@link ClassWrapperProvider} is recorded as {@link MixinMetrics.Phase#CLASS_RESOLUTION}.
+     *
+     * @param metrics The metrics to record to, or null to not record any metrics.
+     */
+    public void setMetrics(@Nullable MixinMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
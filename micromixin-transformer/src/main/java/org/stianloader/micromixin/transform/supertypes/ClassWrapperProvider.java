@@ -3,9 +3,25 @@ package org.stianloader.micromixin.transform.supertypes;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * A source of {@link ClassWrapper ClassWrappers}, as consulted by a {@link ClassWrapperPool}.
+ * Providers are queried in the order they were added to the pool, until a provider knows the requested class.
+ */
 public interface ClassWrapperProvider {
 
     // TODO request with modularity attachment
+    /**
+     * Provides the wrapper of a class.
+     *
+     * <p>Providers must return null for classes they do not know instead of throwing an exception, so that the
+     * remaining providers of the pool can be consulted. Exceptions should only be thrown if the class exists
+     * but could not be read. Misses can be remembered by the pool (see {@link ClassWrapperPool#setMissTimeout(long, java.util.concurrent.TimeUnit)}),
+     * so providers do not need to cache them themselves.
+     *
+     * @param name The internal name of the class
+     * @param pool The pool the wrapper is created for
+     * @return The wrapper, or null if the class is not known to this provider.
+     */
     @Nullable
     ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool);
 }
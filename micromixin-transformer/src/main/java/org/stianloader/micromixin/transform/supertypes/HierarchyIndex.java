@@ -0,0 +1,471 @@
+package org.stianloader.micromixin.transform.supertypes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A compact, persistent index of the class hierarchy of a set of sources (usually jars), which is read through a
+ * memory-mapped buffer. Lookups read the index in-place, so no part of the index needs to be copied onto the heap
+ * except for the names of the supertypes of the classes that are looked up.
+ *
+ * <p>Each source is stored alongside a checksum, its size and its last modification time, which allows tools to rebuild
+ * the index incrementally by only rescanning sources whose checksum changed, and to only compute the checksums of sources
+ * whose size or modification time changed. Should multiple sources define the same class, the definition of the
+ * source that was written first is used for lookups, mirroring the behaviour of a classpath.
+ *
+ * <p>All values are stored in big-endian byte order. The index consists of the following sections:
+ * <ol>
+ * <li>The header: magic, version, source count, name count, record count, interface count and hash table size</li>
+ * <li>Sources: the name ID, the checksum, the size and the last modification time of each source</li>
+ * <li>Name offsets: the absolute offset of the data of each name</li>
+ * <li>Records: the name ID, hash code, superclass name ID (-1 if none), interface start index, interface count,
+ * source index and flags of each class</li>
+ * <li>Interfaces: the name IDs of the interfaces of all classes</li>
+ * <li>Hash table: open addressing table of record indices plus one, keyed by {@link String#hashCode()}</li>
+ * <li>Name data: the length and UTF-8 encoded bytes of each name</li>
+ * </ol>
+ *
+ * <p>Instances of this class are immutable and thread-safe.
+ */
+public final class HierarchyIndex {
+
+    /**
+     * A class as stored in the index.
+     */
+    public static final class Entry {
+        @NotNull
+        private final String[] interfaces;
+        private final boolean itf;
+        @NotNull
+        private final String name;
+        @Nullable
+        private final String superName;
+
+        public Entry(@NotNull String name, @Nullable String superName, @NotNull String[] interfaces, boolean isInterface) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.itf = isInterface;
+        }
+
+        @NotNull
+        public String[] getInterfaces() {
+            return this.interfaces;
+        }
+
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+
+        @Nullable
+        public String getSuperName() {
+            return this.superName;
+        }
+
+        public boolean isInterface() {
+            return this.itf;
+        }
+    }
+
+    /**
+     * A source of classes as stored in the index, for example a jar.
+     */
+    public static final class Source {
+        private final long checksum;
+        @NotNull
+        private final List<Entry> entries;
+        private final long lastModified;
+        @NotNull
+        private final String name;
+        private final long size;
+
+        /**
+         * Constructor for sources whose size and last modification time are unknown.
+         *
+         * @param name The name of the source, for example the path of a jar
+         * @param checksum A checksum of the contents of the source
+         * @param entries The classes defined by the source
+         */
+        public Source(@NotNull String name, long checksum, @NotNull List<Entry> entries) {
+            this(name, checksum, -1L, -1L, entries);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param name The name of the source, for example the path of a jar
+         * @param checksum A checksum of the contents of the source
+         * @param size The size of the source in bytes, or -1 if unknown
+         * @param lastModified The last modification time of the source in milliseconds since the epoch, or -1 if unknown
+         * @param entries The classes defined by the source
+         */
+        public Source(@NotNull String name, long checksum, long size, long lastModified, @NotNull List<Entry> entries) {
+            this.name = name;
+            this.checksum = checksum;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.entries = entries;
+        }
+
+        public long getChecksum() {
+            return this.checksum;
+        }
+
+        @NotNull
+        public List<Entry> getEntries() {
+            return this.entries;
+        }
+
+        /**
+         * Obtains the last modification time of the source at the time its checksum was computed.
+         *
+         * @return The time in milliseconds since the epoch, or -1 if unknown
+         */
+        public long getLastModified() {
+            return this.lastModified;
+        }
+
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Obtains the size of the source at the time its checksum was computed.
+         *
+         * @return The size in bytes, or -1 if unknown
+         */
+        public long getSize() {
+            return this.size;
+        }
+    }
+
+    private static final int FLAG_INTERFACE = 1;
+    private static final int HEADER_SIZE = 28;
+    public static final int MAGIC = 0x4D4D4849; // "MMHI"
+    private static final int RECORD_FLAGS = 24;
+    private static final int RECORD_HASH = 4;
+    private static final int RECORD_INTERFACE_COUNT = 16;
+    private static final int RECORD_INTERFACE_START = 12;
+    private static final int RECORD_SIZE = 28;
+    private static final int RECORD_SOURCE = 20;
+    private static final int RECORD_SUPER = 8;
+    private static final int SOURCE_SIZE = 28;
+    @NotNull
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    public static final int VERSION = 2;
+
+    private static int getSlot(int hash, int mask) {
+        int h = hash * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Maps an index file into memory. The file is not locked, it must not be modified while the index is in use.
+     *
+     * @param file The index file
+     * @return The opened index
+     * @throws IOException If the file could not be read or is not a valid index
+     */
+    @NotNull
+    public static HierarchyIndex open(@NotNull File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // The mapping remains valid after the channel is closed
+            return new HierarchyIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes an index file.
+     *
+     * @param file The file to write to
+     * @param sources The sources to index, in order of precedence
+     * @throws IOException If the file could not be written
+     */
+    public static void write(@NotNull File file, @NotNull List<Source> sources) throws IOException {
+        Map<String, Integer> nameIds = new LinkedHashMap<String, Integer>();
+        int recordCount = 0;
+        int interfaceCount = 0;
+        for (Source source : sources) {
+            HierarchyIndex.intern(nameIds, source.getName());
+            for (Entry entry : source.getEntries()) {
+                HierarchyIndex.intern(nameIds, entry.getName());
+                String superName = entry.getSuperName();
+                if (superName != null) {
+                    HierarchyIndex.intern(nameIds, superName);
+                }
+                for (String interfaceName : entry.getInterfaces()) {
+                    HierarchyIndex.intern(nameIds, interfaceName);
+                }
+                recordCount++;
+                interfaceCount += entry.getInterfaces().length;
+            }
+        }
+
+        int slots = Integer.highestOneBit(Math.max(recordCount, 1)) << 2;
+        int[] table = new int[slots];
+        Set<String> indexed = new HashSet<String>();
+        int record = 0;
+        for (Source source : sources) {
+            for (Entry entry : source.getEntries()) {
+                // Classes shadowed by earlier sources are stored, but not reachable through lookups
+                if (indexed.add(entry.getName())) {
+                    int slot = HierarchyIndex.getSlot(entry.getName().hashCode(), slots - 1);
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & (slots - 1);
+                    }
+                    table[slot] = record + 1;
+                }
+                record++;
+            }
+        }
+
+        List<byte[]> names = new ArrayList<byte[]>(nameIds.size());
+        for (String name : nameIds.keySet()) {
+            names.add(name.getBytes(HierarchyIndex.UTF_8));
+        }
+        long nameDataOffset = HierarchyIndex.HEADER_SIZE + (long) sources.size() * HierarchyIndex.SOURCE_SIZE + names.size() * 4L
+                + (long) recordCount * HierarchyIndex.RECORD_SIZE + interfaceCount * 4L + slots * 4L;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+        try {
+            out.writeInt(HierarchyIndex.MAGIC);
+            out.writeInt(HierarchyIndex.VERSION);
+            out.writeInt(sources.size());
+            out.writeInt(names.size());
+            out.writeInt(recordCount);
+            out.writeInt(interfaceCount);
+            out.writeInt(slots);
+            for (Source source : sources) {
+                out.writeInt(nameIds.get(source.getName()));
+                out.writeLong(source.getChecksum());
+                out.writeLong(source.getSize());
+                out.writeLong(source.getLastModified());
+            }
+            long offset = nameDataOffset;
+            for (byte[] name : names) {
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Hierarchy index too large");
+                }
+                out.writeInt((int) offset);
+                offset += 4 + name.length;
+            }
+            int interfaceStart = 0;
+            for (int sourceIndex = 0; sourceIndex < sources.size(); sourceIndex++) {
+                for (Entry entry : sources.get(sourceIndex).getEntries()) {
+                    String superName = entry.getSuperName();
+                    out.writeInt(nameIds.get(entry.getName()));
+                    out.writeInt(entry.getName().hashCode());
+                    out.writeInt(superName == null ? -1 : nameIds.get(superName));
+                    out.writeInt(interfaceStart);
+                    out.writeInt(entry.getInterfaces().length);
+                    out.writeInt(sourceIndex);
+                    out.writeInt(entry.isInterface() ? HierarchyIndex.FLAG_INTERFACE : 0);
+                    interfaceStart += entry.getInterfaces().length;
+                }
+            }
+            for (Source source : sources) {
+                for (Entry entry : source.getEntries()) {
+                    for (String interfaceName : entry.getInterfaces()) {
+                        out.writeInt(nameIds.get(interfaceName));
+                    }
+                }
+            }
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            for (byte[] name : names) {
+                out.writeInt(name.length);
+                out.write(name);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void intern(@NotNull Map<String, Integer> nameIds, @NotNull String name) {
+        if (!nameIds.containsKey(name)) {
+            nameIds.put(name, nameIds.size());
+        }
+    }
+
+    @NotNull
+    private final ByteBuffer buffer;
+    private final int hashTableOffset;
+    private final int hashTableSize;
+    private final int interfacesOffset;
+    private final int nameOffsetsOffset;
+    private final int recordCount;
+    private final int recordsOffset;
+    private final int sourceCount;
+
+    private HierarchyIndex(@NotNull ByteBuffer buffer, @NotNull File file) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HierarchyIndex.HEADER_SIZE || buffer.getInt(0) != HierarchyIndex.MAGIC) {
+            throw new IOException("Not a hierarchy index: " + file);
+        }
+        if (buffer.getInt(4) != HierarchyIndex.VERSION) {
+            throw new IOException("Unsupported hierarchy index version " + buffer.getInt(4) + " in " + file);
+        }
+        this.sourceCount = buffer.getInt(8);
+        int nameCount = buffer.getInt(12);
+        this.recordCount = buffer.getInt(16);
+        int interfaceCount = buffer.getInt(20);
+        this.hashTableSize = buffer.getInt(24);
+        if (this.sourceCount < 0 || nameCount < 0 || this.recordCount < 0 || interfaceCount < 0
+                || this.hashTableSize <= 0 || Integer.bitCount(this.hashTableSize) != 1) {
+            throw new IOException("Corrupt hierarchy index header in " + file);
+        }
+        long nameOffsetsOffset = HierarchyIndex.HEADER_SIZE + (long) this.sourceCount * HierarchyIndex.SOURCE_SIZE;
+        long recordsOffset = nameOffsetsOffset + nameCount * 4L;
+        long interfacesOffset = recordsOffset + (long) this.recordCount * HierarchyIndex.RECORD_SIZE;
+        long hashTableOffset = interfacesOffset + interfaceCount * 4L;
+        if (hashTableOffset + this.hashTableSize * 4L > buffer.capacity()) {
+            throw new IOException("Truncated hierarchy index: " + file);
+        }
+        this.nameOffsetsOffset = (int) nameOffsetsOffset;
+        this.recordsOffset = (int) recordsOffset;
+        this.interfacesOffset = (int) interfacesOffset;
+        this.hashTableOffset = (int) hashTableOffset;
+    }
+
+    /**
+     * Looks up a class and creates a wrapper for it.
+     *
+     * @param name The internal name of the class
+     * @param pool The pool to create the wrapper for
+     * @return The wrapper, or null if the class is not part of the index.
+     */
+    @Nullable
+    public ClassWrapper createWrapper(@NotNull String name, @NotNull ClassWrapperPool pool) {
+        int record = this.findRecord(name);
+        if (record < 0) {
+            return null;
+        }
+        int offset = this.recordsOffset + record * HierarchyIndex.RECORD_SIZE;
+        int superId = this.buffer.getInt(offset + HierarchyIndex.RECORD_SUPER);
+        String[] interfaces = this.getInterfaces(offset);
+        boolean itf = (this.buffer.getInt(offset + HierarchyIndex.RECORD_FLAGS) & HierarchyIndex.FLAG_INTERFACE) != 0;
+        return new ClassWrapper(name, superId < 0 ? null : this.getName(superId), interfaces, itf, pool);
+    }
+
+    private int findRecord(@NotNull String name) {
+        int hash = name.hashCode();
+        int mask = this.hashTableSize - 1;
+        int slot = HierarchyIndex.getSlot(hash, mask);
+        while (true) {
+            int record = this.buffer.getInt(this.hashTableOffset + slot * 4) - 1;
+            if (record < 0) {
+                return -1;
+            }
+            int offset = this.recordsOffset + record * HierarchyIndex.RECORD_SIZE;
+            if (this.buffer.getInt(offset + HierarchyIndex.RECORD_HASH) == hash && this.nameEquals(this.buffer.getInt(offset), name)) {
+                return record;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @NotNull
+    private String[] getInterfaces(int recordOffset) {
+        int start = this.buffer.getInt(recordOffset + HierarchyIndex.RECORD_INTERFACE_START);
+        String[] interfaces = new String[this.buffer.getInt(recordOffset + HierarchyIndex.RECORD_INTERFACE_COUNT)];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = this.getName(this.buffer.getInt(this.interfacesOffset + (start + i) * 4));
+        }
+        return interfaces;
+    }
+
+    @NotNull
+    private String getName(int nameId) {
+        int offset = this.buffer.getInt(this.nameOffsetsOffset + nameId * 4);
+        byte[] data = new byte[this.buffer.getInt(offset)];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = this.buffer.get(offset + 4 + i);
+        }
+        return new String(data, HierarchyIndex.UTF_8);
+    }
+
+    /**
+     * Obtains the amount of classes that can be looked up, excluding classes that are shadowed by other sources.
+     *
+     * @return The amount of classes
+     */
+    @Contract(pure = true)
+    public int getClassCount() {
+        int count = 0;
+        for (int slot = 0; slot < this.hashTableSize; slot++) {
+            if (this.buffer.getInt(this.hashTableOffset + slot * 4) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean nameEquals(int nameId, @NotNull String name) {
+        int offset = this.buffer.getInt(this.nameOffsetsOffset + nameId * 4);
+        int length = this.buffer.getInt(offset);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                // Names outside of the ASCII range are rare, so there is no need to compare them in-place
+                return this.getName(nameId).equals(name);
+            }
+            if (i >= length || this.buffer.get(offset + 4 + i) != c) {
+                return false;
+            }
+        }
+        return length == name.length();
+    }
+
+    /**
+     * Reads all sources and their classes, including classes shadowed by earlier sources.
+     * Unlike lookups, this copies the entire index onto the heap and is intended for tools which rebuild the index.
+     *
+     * @return An unmodifiable list of all sources, in order of precedence.
+     */
+    @NotNull
+    public List<Source> readSources() {
+        List<List<Entry>> entries = new ArrayList<List<Entry>>(this.sourceCount);
+        for (int i = 0; i < this.sourceCount; i++) {
+            entries.add(new ArrayList<Entry>());
+        }
+        for (int record = 0; record < this.recordCount; record++) {
+            int offset = this.recordsOffset + record * HierarchyIndex.RECORD_SIZE;
+            int superId = this.buffer.getInt(offset + HierarchyIndex.RECORD_SUPER);
+            boolean itf = (this.buffer.getInt(offset + HierarchyIndex.RECORD_FLAGS) & HierarchyIndex.FLAG_INTERFACE) != 0;
+            Entry entry = new Entry(this.getName(this.buffer.getInt(offset)), superId < 0 ? null : this.getName(superId), this.getInterfaces(offset), itf);
+            entries.get(this.buffer.getInt(offset + HierarchyIndex.RECORD_SOURCE)).add(entry);
+        }
+        List<Source> sources = new ArrayList<Source>(this.sourceCount);
+        for (int i = 0; i < this.sourceCount; i++) {
+            int offset = HierarchyIndex.HEADER_SIZE + i * HierarchyIndex.SOURCE_SIZE;
+            sources.add(new Source(this.getName(this.buffer.getInt(offset)), this.buffer.getLong(offset + 4),
+                    this.buffer.getLong(offset + 12), this.buffer.getLong(offset + 20), entries.get(i)));
+        }
+        return Collections.unmodifiableList(sources);
+    }
+}
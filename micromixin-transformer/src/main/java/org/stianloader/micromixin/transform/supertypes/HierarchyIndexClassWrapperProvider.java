@@ -0,0 +1,36 @@
+package org.stianloader.micromixin.transform.supertypes;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link ClassWrapperProvider} backed by a memory-mapped {@link HierarchyIndex}.
+ * As the index is prebuilt, resolving a class neither requires reading class files nor loading classes.
+ */
+public class HierarchyIndexClassWrapperProvider implements ClassWrapperProvider {
+
+    @NotNull
+    private final HierarchyIndex index;
+
+    public HierarchyIndexClassWrapperProvider(@NotNull File indexFile) throws IOException {
+        this(HierarchyIndex.open(indexFile));
+    }
+
+    public HierarchyIndexClassWrapperProvider(@NotNull HierarchyIndex index) {
+        this.index = index;
+    }
+
+    @NotNull
+    public HierarchyIndex getIndex() {
+        return this.index;
+    }
+
+    @Override
+    @Nullable
+    public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+        return this.index.createWrapper(name, pool);
+    }
+}
@@ -0,0 +1,90 @@
+package org.stianloader.micromixin.transform.supertypes;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable set of interface names, backed by the sorted {@link ClassWrapperPool#getClassId(String) class IDs}
+ * of the interfaces. Closures are interned by the {@link ClassWrapperPool}, so that all classes implementing the same
+ * set of interfaces share a single instance.
+ */
+final class InterfaceClosure extends AbstractSet<String> {
+
+    @NotNull
+    final int[] ids;
+    @NotNull
+    private final ClassWrapperPool pool;
+    private int hashCode;
+
+    InterfaceClosure(@NotNull int[] ids, @NotNull ClassWrapperPool pool) {
+        this.ids = ids;
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        int id = this.pool.getExistingClassId((String) o);
+        return id >= 0 && this.containsId(id);
+    }
+
+    boolean containsId(int id) {
+        return Arrays.binarySearch(this.ids, id) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof InterfaceClosure && ((InterfaceClosure) o).pool == this.pool) {
+            return Arrays.equals(this.ids, ((InterfaceClosure) o).ids);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // The hash code must match the hash code of other sets. The race to compute it is benign.
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = super.hashCode();
+            this.hashCode = hashCode;
+        }
+        return hashCode;
+    }
+
+    @Override
+    @NotNull
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < InterfaceClosure.this.ids.length;
+            }
+
+            @Override
+            public String next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return InterfaceClosure.this.pool.getClassName(InterfaceClosure.this.ids[this.index++]);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.ids.length;
+    }
+}
@@ -18,7 +18,7 @@ public class ReflectionClassWrapperProvider implements ClassWrapperProvider {
         try {
             clazz = Class.forName(className.replace('/', '.'), false, loader);
         } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("Unable to resolve class: " + className, e);
+            return null;
         }
         boolean itf = clazz.isInterface();
         String superName;
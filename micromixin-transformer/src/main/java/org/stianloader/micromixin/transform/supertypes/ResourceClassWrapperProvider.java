@@ -0,0 +1,48 @@
+package org.stianloader.micromixin.transform.supertypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link ClassHeaderWrapperProvider} which reads class files as resources of a {@link ClassLoader}.
+ * In contrast to {@link ReflectionClassWrapperProvider}, the classes are not loaded by the class loader.
+ */
+public class ResourceClassWrapperProvider extends ClassHeaderWrapperProvider {
+
+    @Nullable
+    private final ClassLoader loader;
+
+    /**
+     * Constructor.
+     *
+     * @param loader The class loader to read the class files from, or null to use the system class loader.
+     */
+    public ResourceClassWrapperProvider(@Nullable ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    @Nullable
+    public byte[] getClassBytes(@NotNull String name) throws IOException {
+        ClassLoader loader = this.loader;
+        String resource = name + ".class";
+        InputStream in = loader == null ? ClassLoader.getSystemResourceAsStream(resource) : loader.getResourceAsStream(resource);
+        if (in == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.stianloader.micromixin.transform.internal.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events emitted through {@link MixinEvents}.
+ * Must only be loaded if the jdk.jfr module is present.
+ */
+final class FlightRecorderEvents {
+
+    @Name("org.stianloader.micromixin.InjectorApply")
+    @Label("Mixin Annotation Apply")
+    @Category({"Micromixin"})
+    @Description("Application of a single mixin annotation (e.g. @Inject or @Redirect) to a target class")
+    @StackTrace(false)
+    static final class InjectorApplyEvent extends Event {
+        @Label("Annotation")
+        String annotation;
+        @Label("Handler")
+        String handler;
+        @Label("Matched Instructions")
+        @Description("The amount of instructions that were selected by the injection points of the annotation")
+        int matchedInstructions;
+        @Label("Mixin")
+        String mixin;
+        @Label("Target")
+        String target;
+    }
+
+    @Name("org.stianloader.micromixin.LocalsCapture")
+    @Label("Mixin Locals Capture")
+    @Category({"Micromixin"})
+    @Description("Computation of the local variables at an injection point")
+    @StackTrace(false)
+    static final class LocalsCaptureEvent extends Event {
+        @Label("Method")
+        String method;
+        @Label("Target")
+        String target;
+    }
+
+    @Name("org.stianloader.micromixin.StubApply")
+    @Label("Mixin Apply")
+    @Category({"Micromixin"})
+    @Description("Application of a single mixin to a target class")
+    @StackTrace(false)
+    static final class StubApplyEvent extends Event {
+        @Label("Mixin")
+        String mixin;
+        @Label("Target")
+        String target;
+    }
+
+    @Name("org.stianloader.micromixin.Transform")
+    @Label("Mixin Transform")
+    @Category({"Micromixin"})
+    @Description("Application of all mixins to a target class")
+    @StackTrace(false)
+    static final class TransformEvent extends Event {
+        @Label("Mixin Count")
+        int mixinCount;
+        @Label("Target")
+        String target;
+    }
+
+    private static final EventType INJECTOR_APPLY = EventType.getEventType(InjectorApplyEvent.class);
+    private static final EventType LOCALS_CAPTURE = EventType.getEventType(LocalsCaptureEvent.class);
+    private static final EventType STUB_APPLY = EventType.getEventType(StubApplyEvent.class);
+    private static final EventType TRANSFORM = EventType.getEventType(TransformEvent.class);
+
+    private FlightRecorderEvents() {
+        throw new AssertionError();
+    }
+
+    @Nullable
+    static Object beginInjectorApply() {
+        if (!FlightRecorderEvents.INJECTOR_APPLY.isEnabled()) {
+            return null;
+        }
+        InjectorApplyEvent event = new InjectorApplyEvent();
+        event.begin();
+        return event;
+    }
+
+    @Nullable
+    static Object beginLocalsCapture() {
+        if (!FlightRecorderEvents.LOCALS_CAPTURE.isEnabled()) {
+            return null;
+        }
+        LocalsCaptureEvent event = new LocalsCaptureEvent();
+        event.begin();
+        return event;
+    }
+
+    @Nullable
+    static Object beginStubApply() {
+        if (!FlightRecorderEvents.STUB_APPLY.isEnabled()) {
+            return null;
+        }
+        StubApplyEvent event = new StubApplyEvent();
+        event.begin();
+        return event;
+    }
+
+    @Nullable
+    static Object beginTransform() {
+        if (!FlightRecorderEvents.TRANSFORM.isEnabled()) {
+            return null;
+        }
+        TransformEvent event = new TransformEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endInjectorApply(@NotNull Object handle, @NotNull String target, @NotNull String mixin, @NotNull String handler, @NotNull String annotation, int matchedInstructions) {
+        InjectorApplyEvent event = (InjectorApplyEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.mixin = mixin;
+            event.handler = handler;
+            event.annotation = annotation;
+            event.matchedInstructions = matchedInstructions;
+            event.commit();
+        }
+    }
+
+    static void endLocalsCapture(@NotNull Object handle, @NotNull String target, @NotNull String method) {
+        LocalsCaptureEvent event = (LocalsCaptureEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.method = method;
+            event.commit();
+        }
+    }
+
+    static void endStubApply(@NotNull Object handle, @NotNull String target, @NotNull String mixin) {
+        StubApplyEvent event = (StubApplyEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.mixin = mixin;
+            event.commit();
+        }
+    }
+
+    static void endTransform(@NotNull Object handle, @NotNull String target, int mixinCount) {
+        TransformEvent event = (TransformEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.mixinCount = mixinCount;
+            event.commit();
+        }
+    }
+}
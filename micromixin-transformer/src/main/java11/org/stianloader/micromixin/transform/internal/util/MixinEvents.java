@@ -0,0 +1,70 @@
+package org.stianloader.micromixin.transform.internal.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hooks for emitting Java Flight Recorder events about the transformation process.
+ *
+ * <p>Each begin method returns an event handle, or null if the event is not recorded.
+ * The corresponding end method must only be called with non-null handles, which allows
+ * callers to avoid computing event payloads while not recording.
+ *
+ * <p>As this is the implementation under Java 11 and above, events are emitted through {@link FlightRecorderEvents}
+ * as long as the jdk.jfr module is present. While an event type is not enabled, the begin methods do not allocate.
+ */
+public final class MixinEvents {
+
+    private static final boolean AVAILABLE = MixinEvents.isAvailable();
+
+    private MixinEvents() {
+        throw new AssertionError();
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, MixinEvents.class.getClassLoader());
+            // Registers the event types
+            Class.forName(FlightRecorderEvents.class.getName(), true, MixinEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    public static Object beginInjectorApply() {
+        return MixinEvents.AVAILABLE ? FlightRecorderEvents.beginInjectorApply() : null;
+    }
+
+    @Nullable
+    public static Object beginLocalsCapture() {
+        return MixinEvents.AVAILABLE ? FlightRecorderEvents.beginLocalsCapture() : null;
+    }
+
+    @Nullable
+    public static Object beginStubApply() {
+        return MixinEvents.AVAILABLE ? FlightRecorderEvents.beginStubApply() : null;
+    }
+
+    @Nullable
+    public static Object beginTransform() {
+        return MixinEvents.AVAILABLE ? FlightRecorderEvents.beginTransform() : null;
+    }
+
+    public static void endInjectorApply(@NotNull Object event, @NotNull String target, @NotNull String mixin, @NotNull String handler, @NotNull String annotation, int matchedInstructions) {
+        FlightRecorderEvents.endInjectorApply(event, target, mixin, handler, annotation, matchedInstructions);
+    }
+
+    public static void endLocalsCapture(@NotNull Object event, @NotNull String target, @NotNull String method) {
+        FlightRecorderEvents.endLocalsCapture(event, target, method);
+    }
+
+    public static void endStubApply(@NotNull Object event, @NotNull String target, @NotNull String mixin) {
+        FlightRecorderEvents.endStubApply(event, target, mixin);
+    }
+
+    public static void endTransform(@NotNull Object event, @NotNull String target, int mixinCount) {
+        FlightRecorderEvents.endTransform(event, target, mixinCount);
+    }
+}
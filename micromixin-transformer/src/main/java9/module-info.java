@@ -5,6 +5,8 @@ module org.stianloader.micromixin.transform {
     requires org.objectweb.asm.util;
     requires transitive org.json;
     requires org.jetbrains.annotations;
+    requires static java.management;
+    requires static jdk.jfr;
 
     exports org.stianloader.micromixin.transform;
     exports org.stianloader.micromixin.transform.api;
@@ -0,0 +1,74 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.BatchTransformationResult;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.test.TestClasses.MapBytecodeProvider;
+
+public class BatchTransformationTest {
+
+    @Test
+    public void testBatchTransformation() throws InterruptedException, InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        StringBuilder config = new StringBuilder("{\"package\": \"test.mixin\", \"mixins\": [");
+        List<byte[]> classes = new ArrayList<byte[]>();
+        for (int i = 0; i < 64; i++) {
+            String target = "test/Target" + i;
+            byte[] targetBytes = TestClasses.write(TestClasses.target(target, 1));
+            provider.classes.put(target, targetBytes);
+            classes.add(targetBytes);
+            if (i % 2 == 0) {
+                provider.classes.put("test/mixin/Mixin" + i, TestClasses.write(TestClasses.mixin("test/mixin/Mixin" + i, 2, target)));
+                if (i != 0) {
+                    config.append(',');
+                }
+                config.append("\"Mixin").append(i).append('"');
+            }
+        }
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.addMixin(null, MixinConfig.fromString(config.append("]}").toString()));
+
+        BatchTransformationResult<byte[]> result = transformer.transformAllBytes(classes, 4);
+        assertFalse(result.hasFailures());
+        assertEquals(32, result.getTransformed().size());
+        for (int i = 0; i < 64; i += 2) {
+            assertEquals(2, TestClasses.getReturnedConstant(result.getTransformed().get("test/Target" + i)));
+        }
+
+        List<ClassNode> nodes = new ArrayList<ClassNode>();
+        for (int i = 0; i < 64; i++) {
+            nodes.add(TestClasses.target("test/Target" + i, 1));
+        }
+        BatchTransformationResult<ClassNode> nodeResult = transformer.transformAll(nodes, 4);
+        assertFalse(nodeResult.hasFailures());
+        assertEquals(32, nodeResult.getTransformed().size());
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i % 2 == 0 ? 2 : 1, TestClasses.getReturnedConstant(nodes.get(i)));
+        }
+    }
+
+    @Test
+    public void testMalformedClassFile() throws InterruptedException, InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        byte[] targetBytes = TestClasses.write(TestClasses.target("test/TargetA", 1));
+        provider.classes.put("test/TargetA", targetBytes);
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+
+        BatchTransformationResult<byte[]> result = transformer.transformAllBytes(Arrays.asList(new byte[] {1, 2, 3}, targetBytes), 2);
+        assertEquals(Collections.singleton("<malformed class file #0>"), result.getFailures().keySet());
+        assertEquals(2, TestClasses.getReturnedConstant(result.getTransformed().get("test/TargetA")));
+    }
+}
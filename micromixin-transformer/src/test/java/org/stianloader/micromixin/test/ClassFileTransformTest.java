@@ -0,0 +1,98 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.internal.util.PoolAwareClassWriter;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+import org.stianloader.micromixin.test.TestClasses.MapBytecodeProvider;
+
+public class ClassFileTransformTest {
+
+    private static class ExposedClassWriter extends PoolAwareClassWriter {
+        public ExposedClassWriter(ClassWrapperPool pool, ClassNode writtenNode) {
+            super(ClassWriter.COMPUTE_FRAMES, pool, writtenNode);
+        }
+
+        public String commonSuperClass(String type1, String type2) {
+            return this.getCommonSuperClass(type1, type2);
+        }
+    }
+
+    @Test
+    public void testClassFileTransform() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+
+        byte[] untouched = TestClasses.write(TestClasses.target("test/TargetB", 1));
+        assertSame(untouched, transformer.transform(null, "test/TargetB", untouched));
+
+        byte[] target = TestClasses.write(TestClasses.target("test/TargetA", 1));
+        byte[] transformed = transformer.transform(null, "test/TargetA", target);
+        assertNotSame(target, transformed);
+        assertEquals(2, TestClasses.getReturnedConstant(transformed));
+    }
+
+    @Test
+    public void testUntouchedMethodCopy() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+
+        ClassNode targetNode = TestClasses.target("test/TargetA", 1);
+        MethodNode untouched = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "untouched", "()I", null, null);
+        untouched.instructions.add(new InsnNode(Opcodes.ICONST_4));
+        untouched.instructions.add(new InsnNode(Opcodes.IRETURN));
+        targetNode.methods.add(untouched);
+        byte[] target = TestClasses.write(targetNode);
+
+        for (boolean copy : new boolean[] {true, false}) {
+            transformer.setCopyUntouchedMethods(copy);
+            ClassNode transformed = new ClassNode();
+            new ClassReader(transformer.transform(null, "test/TargetA", target)).accept(transformed, 0);
+            assertEquals(2, TestClasses.getReturnedConstant(transformed));
+            assertEquals(2, transformed.methods.size());
+            for (MethodNode method : transformed.methods) {
+                if (method.name.equals("untouched")) {
+                    assertEquals(Opcodes.ICONST_4, method.instructions.getFirst().getOpcode());
+                    assertEquals(1, method.maxStack);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPoolCommonSuperClass() {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        ClassNode base = TestClasses.target("test/Base", 0);
+        ClassNode childA = TestClasses.target("test/ChildA", 0);
+        childA.superName = base.name;
+        ClassNode childB = TestClasses.target("test/ChildB", 0);
+        childB.superName = base.name;
+        provider.classes.put(base.name, TestClasses.write(base));
+        provider.classes.put(childA.name, TestClasses.write(childA));
+        ClassWrapperPool pool = TestClasses.transformer(provider).getPool();
+
+        // test/ChildB is only known through the written node, not through the pool
+        ExposedClassWriter writer = new ExposedClassWriter(pool, childB);
+        assertEquals("test/Base", writer.commonSuperClass("test/ChildA", "test/ChildB"));
+        assertEquals("test/Base", writer.commonSuperClass("test/Base", "test/ChildA"));
+        assertEquals("java/lang/Object", writer.commonSuperClass("test/ChildA", "java/lang/Object"));
+        childB.access |= Opcodes.ACC_INTERFACE;
+        assertEquals("java/lang/Object", writer.commonSuperClass("test/ChildA", "test/ChildB"));
+    }
+}
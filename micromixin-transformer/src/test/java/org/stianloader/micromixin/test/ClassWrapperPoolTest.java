@@ -0,0 +1,444 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapper;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperProvider;
+import org.stianloader.micromixin.transform.supertypes.ReflectionClassWrapperProvider;
+import org.stianloader.micromixin.transform.supertypes.ResourceClassWrapperProvider;
+
+public class ClassWrapperPoolTest {
+
+    private static class CountingProvider implements ClassWrapperProvider {
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @Override
+        @Nullable
+        public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+            this.invocations.incrementAndGet();
+            if (!name.startsWith("test/")) {
+                return null;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ClassWrapper(name, "java/lang/Object", new String[0], false, pool);
+        }
+    }
+
+    private static class HierarchyProvider implements ClassWrapperProvider {
+        @Override
+        @Nullable
+        public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+            if (name.equals("test/I")) {
+                return new ClassWrapper(name, "java/lang/Object", new String[0], true, pool);
+            } else if (name.equals("test/J")) {
+                return new ClassWrapper(name, "java/lang/Object", new String[] {"test/I"}, true, pool);
+            } else if (name.equals("test/A")) {
+                return new ClassWrapper(name, "java/lang/Object", new String[] {"test/J"}, false, pool);
+            } else if (name.equals("test/B")) {
+                return new ClassWrapper(name, "test/A", new String[] {"test/I"}, false, pool);
+            } else if (name.equals("test/C")) {
+                return new ClassWrapper(name, "java/lang/Object", new String[0], false, pool);
+            }
+            return null;
+        }
+    }
+
+    @Test
+    public void testAssignability() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new HierarchyProvider());
+        ClassWrapper object = pool.get("java/lang/Object");
+        ClassWrapper i = pool.get("test/I");
+        ClassWrapper j = pool.get("test/J");
+        ClassWrapper a = pool.get("test/A");
+        ClassWrapper b = pool.get("test/B");
+        ClassWrapper c = pool.get("test/C");
+
+        assertTrue(pool.canAssign(object, b));
+        assertTrue(pool.canAssign(object, j));
+        assertTrue(pool.canAssign(a, b));
+        assertTrue(pool.canAssign(b, b));
+        assertTrue(pool.canAssign(i, b));
+        assertTrue(pool.canAssign(j, b));
+        assertTrue(pool.canAssign(i, j));
+        assertFalse(pool.canAssign(b, a));
+        assertFalse(pool.canAssign(j, i));
+        assertFalse(pool.canAssign(c, b));
+        assertFalse(pool.canAssign(i, c));
+        assertFalse(pool.canAssign(a, j));
+        assertFalse(pool.canAssign(b, object));
+
+        assertTrue(pool.isImplementingInterface(b, "test/I"));
+        assertTrue(pool.isImplementingInterface(a, "test/J"));
+        assertTrue(pool.isImplementingInterface(j, "test/I"));
+        assertFalse(pool.isImplementingInterface(i, "test/I"));
+        assertFalse(pool.isImplementingInterface(b, "test/A"));
+        assertFalse(pool.isImplementingInterface(c, "test/I"));
+
+        assertSame(a, pool.getCommonSuperClass(a, b));
+        assertSame(object, pool.getCommonSuperClass(b, c));
+    }
+
+    @Test
+    public void testAssignabilityWithUnresolvableInterface() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                if (name.equals("test/A")) {
+                    return new ClassWrapper(name, "java/lang/Object", new String[] {"missing/Itf"}, false, pool);
+                } else if (name.equals("test/B") || name.equals("test/C")) {
+                    return new ClassWrapper(name, "test/A", new String[0], false, pool);
+                }
+                return null;
+            }
+        });
+        ClassWrapper a = pool.get("test/A");
+        ClassWrapper b = pool.get("test/B");
+        ClassWrapper c = pool.get("test/C");
+
+        // Checks against classes never require the interfaces of the subtype to be resolved
+        assertTrue(pool.canAssign(a, b));
+        assertFalse(pool.canAssign(b, c));
+        assertTrue(pool.canAssign(pool.get("java/lang/Object"), c));
+        assertSame(a, pool.getCommonSuperClass(b, c));
+    }
+
+    @Test
+    public void testCommonSuperClassInvalidation() {
+        final String[] superOfB = {"test/A"};
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                if (name.equals("test/A") || name.equals("test/C")) {
+                    return new ClassWrapper(name, "java/lang/Object", new String[0], false, pool);
+                } else if (name.equals("test/B")) {
+                    return new ClassWrapper(name, superOfB[0], new String[0], false, pool);
+                }
+                return null;
+            }
+        });
+        assertEquals("test/A", pool.getCommonSuperClass(pool.get("test/A"), pool.get("test/B")).getName());
+        assertEquals("test/A", pool.getCommonSuperClass(pool.get("test/B"), pool.get("test/A")).getName());
+        superOfB[0] = "test/C";
+        pool.invalidateNameCaches();
+        assertEquals("java/lang/Object", pool.getCommonSuperClass(pool.get("test/A"), pool.get("test/B")).getName());
+        assertEquals("test/C", pool.getCommonSuperClass(pool.get("test/B"), pool.get("test/C")).getName());
+    }
+
+    @Test
+    public void testSharedInterfaceClosures() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new HierarchyProvider());
+        Set<String> closureA = pool.get("test/A").getAllImplementatingInterfaces();
+        Set<String> closureB = pool.get("test/B").getAllImplementatingInterfaces();
+        assertEquals(new HashSet<String>(Arrays.asList("test/I", "test/J")), closureA);
+        assertEquals(closureA, new HashSet<String>(Arrays.asList("test/I", "test/J")));
+        assertSame(closureA, closureB);
+        assertSame(closureA, pool.get("test/J").getAllImplementatingInterfaces());
+        assertTrue(closureA.contains("test/I"));
+        assertFalse(closureA.contains("test/A"));
+        assertFalse(closureA.contains("test/Unknown"));
+        assertTrue(pool.get("test/C").getAllImplementatingInterfaces().isEmpty());
+        assertEquals(Collections.singleton("test/I"), pool.get("test/I").getAllImplementatingInterfaces());
+    }
+
+    @Test
+    public void testSelectiveInvalidation() {
+        final Map<String, String> superNames = new HashMap<String, String>();
+        superNames.put("mod/A", "java/lang/Object");
+        superNames.put("mod/B", "mod/A");
+        superNames.put("game/C", "java/lang/Object");
+        superNames.put("game/D", "game/C");
+        superNames.put("game/E", "mod/A");
+        final AtomicInteger invocations = new AtomicInteger();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                invocations.incrementAndGet();
+                String superName = superNames.get(name);
+                return superName == null ? null : new ClassWrapper(name, superName, new String[0], false, pool);
+            }
+        });
+        assertTrue(pool.canAssign(pool.get("mod/A"), pool.get("mod/B")));
+        assertTrue(pool.canAssign(pool.get("game/C"), pool.get("game/D")));
+        assertTrue(pool.canAssign(pool.get("mod/A"), pool.get("game/E")));
+        assertNull(pool.optGet("mod/F"));
+        assertEquals(6, invocations.get());
+
+        long generation = pool.getGeneration();
+        superNames.put("mod/A", "game/C");
+        superNames.put("mod/F", "java/lang/Object");
+        pool.invalidatePrefix("mod/");
+        assertTrue(pool.getGeneration() > generation);
+        // game/E depends on mod/A and is invalidated, too. game/C and game/D are retained
+        assertTrue(pool.canAssign(pool.get("game/C"), pool.get("game/D")));
+        assertEquals(6, invocations.get());
+        assertTrue(pool.canAssign(pool.get("game/C"), pool.get("game/E")));
+        assertTrue(pool.canAssign(pool.get("game/C"), pool.get("mod/B")));
+        assertEquals("java/lang/Object", pool.get("mod/F").getSuper());
+        assertEquals(10, invocations.get());
+
+        superNames.put("game/D", "java/lang/Object");
+        pool.invalidate("game/D");
+        assertFalse(pool.canAssign(pool.get("game/C"), pool.get("game/D")));
+        assertTrue(pool.canAssign(pool.get("game/C"), pool.get("mod/B")));
+        assertEquals(11, invocations.get());
+    }
+
+    @Test
+    public void testTransitiveInvalidation() {
+        final Map<String, String[]> interfaces = new HashMap<String, String[]>();
+        interfaces.put("test/X", new String[] {"test/I"});
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                if (name.equals("test/I")) {
+                    return new ClassWrapper(name, "java/lang/Object", new String[0], true, pool);
+                } else if (name.equals("test/X")) {
+                    return new ClassWrapper(name, "java/lang/Object", interfaces.get(name), false, pool);
+                } else if (name.equals("test/Z")) {
+                    return new ClassWrapper(name, "test/X", new String[0], false, pool);
+                } else if (name.equals("test/Y")) {
+                    return new ClassWrapper(name, "test/Z", new String[0], false, pool);
+                }
+                return null;
+            }
+        });
+        // test/Y shares the interface closure of test/Z, which shares the closure of test/X
+        assertTrue(pool.isImplementingInterface(pool.get("test/Y"), "test/I"));
+
+        interfaces.put("test/X", new String[0]);
+        pool.invalidate("test/X");
+        assertFalse(pool.isImplementingInterface(pool.get("test/Y"), "test/I"));
+        assertFalse(pool.canAssign(pool.get("test/I"), pool.get("test/Y")));
+        assertTrue(pool.canAssign(pool.get("test/X"), pool.get("test/Y")));
+    }
+
+    @Test
+    public void testClassIds() {
+        ClassWrapperPool pool = new ClassWrapperPool();
+        int first = pool.getClassId("test/A");
+        int second = pool.getClassId("test/B");
+        assertTrue(first != second);
+        assertTrue(first >= 0 && second >= 0 && first < 2 && second < 2);
+        pool.invalidateNameCaches();
+        assertEquals(first, pool.getClassId("test/A"));
+        assertEquals(2, pool.getClassId("test/C"));
+    }
+
+    @Test
+    public void testResourceProvider() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ResourceClassWrapperProvider(ClassWrapperPoolTest.class.getClassLoader()));
+        ClassWrapper list = pool.get("java/util/ArrayList");
+        assertEquals("java/util/AbstractList", list.getSuper());
+        assertFalse(list.isInterface());
+        assertTrue(pool.isImplementingInterface(list, "java/util/Collection"));
+        assertTrue(pool.get("java/util/List").isInterface());
+        assertNull(pool.optGet("missing/A"));
+    }
+
+    @Test
+    public void testSingleFlightResolution() throws InterruptedException {
+        CountingProvider provider = new CountingProvider();
+        final ClassWrapperPool pool = new ClassWrapperPool().addProvider(provider);
+        final ClassWrapper[] results = new ClassWrapper[16];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    results[index] = pool.optGet("test/A");
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, provider.invocations.get());
+        for (ClassWrapper result : results) {
+            assertSame(results[0], result);
+        }
+        assertSame(results[0], pool.get("test/A"));
+        assertEquals(1, provider.invocations.get());
+    }
+
+    @Test
+    public void testEviction() {
+        final AtomicInteger invocations = new AtomicInteger();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                invocations.incrementAndGet();
+                return new ClassWrapper(name, "java/lang/Object", new String[0], false, pool);
+            }
+        });
+        pool.pin("test/Pinned");
+        pool.setMaximumSize(8);
+        ClassWrapper pinned = pool.get("test/Pinned");
+        for (int i = 0; i < 64; i++) {
+            pool.get("test/C" + i);
+        }
+        assertEquals(65, invocations.get());
+        // Pinned classes and java/lang/Object are never evicted
+        assertSame(pinned, pool.get("test/Pinned"));
+        assertEquals("java/lang/Object", pool.get("java/lang/Object").getName());
+        assertEquals(65, invocations.get());
+        // Most of the other classes have been evicted and are resolved again
+        for (int i = 0; i < 64; i++) {
+            pool.get("test/C" + i);
+        }
+        assertTrue(invocations.get() > 65 + 48);
+    }
+
+    @Test
+    public void testEvictionPrunesCaches() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                return new ClassWrapper(name, name.startsWith("test/Sub") ? "test/Base" : "java/lang/Object", new String[0], false, pool);
+            }
+        });
+        pool.pin("test/Sub1");
+        pool.pin("test/Sub2");
+        pool.setMaximumSize(8);
+        ClassWrapper base = pool.getCommonSuperClass(pool.get("test/Sub1"), pool.get("test/Sub2"));
+        assertEquals("test/Base", base.getName());
+        for (int i = 0; i < 64; i++) {
+            assertFalse(pool.canAssign(pool.get("test/Sub1"), pool.get("test/C" + i)));
+        }
+        // Only the resolved classes of the superclass chains were assigned IDs: java/lang/Object, test/Base, test/Sub1, test/Sub2
+        // and test/C0 to test/C63. Neither lookups nor the closures of classes without interfaces assign class IDs
+        assertEquals(68, pool.getClassId("test/Fresh"));
+        // The cached result referred to the evicted wrapper of test/Base
+        ClassWrapper resolvedBase = pool.get("test/Base");
+        assertNotSame(base, resolvedBase);
+        assertSame(resolvedBase, pool.getCommonSuperClass(pool.get("test/Sub1"), pool.get("test/Sub2")));
+    }
+
+    @Test
+    public void testSelectiveInvalidationAfterEviction() {
+        final Map<String, String[]> interfaces = new HashMap<String, String[]>();
+        interfaces.put("lib/Base", new String[] {"lib/Itf"});
+        final Map<String, Integer> invocations = new HashMap<String, Integer>();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ClassWrapperProvider() {
+            @Override
+            @Nullable
+            public ClassWrapper provide(@NotNull String name, @NotNull ClassWrapperPool pool) {
+                Integer count = invocations.get(name);
+                invocations.put(name, count == null ? 1 : count + 1);
+                if (name.equals("lib/Itf")) {
+                    return new ClassWrapper(name, "java/lang/Object", new String[0], true, pool);
+                } else if (name.equals("lib/Base")) {
+                    return new ClassWrapper(name, "java/lang/Object", interfaces.get(name), false, pool);
+                } else if (name.startsWith("lib/Sub")) {
+                    return new ClassWrapper(name, "lib/Base", new String[0], false, pool);
+                }
+                return new ClassWrapper(name, "java/lang/Object", new String[0], false, pool);
+            }
+        });
+        pool.pin("lib/Sub1");
+        pool.pin("lib/Sub2");
+        pool.setMaximumSize(8);
+        ClassWrapper sub1 = pool.get("lib/Sub1");
+        ClassWrapper sub2 = pool.get("lib/Sub2");
+        assertTrue(pool.isImplementingInterface(sub1, "lib/Itf"));
+        assertTrue(pool.canAssign(pool.get("lib/Base"), sub2));
+        for (int i = 0; i < 64; i++) {
+            assertFalse(pool.canAssign(sub1, pool.get("mod/C" + i)));
+        }
+
+        // The wrappers of lib/Base and lib/Itf were evicted, which does not cause unrelated invalidations to drop their subclasses
+        pool.invalidatePrefix("mod/");
+        assertSame(sub1, pool.get("lib/Sub1"));
+        assertSame(sub2, pool.get("lib/Sub2"));
+        assertEquals(Integer.valueOf(1), invocations.get("lib/Sub1"));
+        assertEquals(Integer.valueOf(1), invocations.get("lib/Sub2"));
+
+        // Invalidating an evicted superclass still invalidates the classes whose closures were derived from it
+        interfaces.put("lib/Base", new String[0]);
+        pool.invalidate("lib/Base");
+        assertFalse(pool.isImplementingInterface(pool.get("lib/Sub1"), "lib/Itf"));
+        assertEquals(Integer.valueOf(2), invocations.get("lib/Sub1"));
+        assertEquals(Integer.valueOf(2), invocations.get("lib/Base"));
+    }
+
+    @Test
+    public void testMissingClassesAreNotRememberedByDefault() {
+        CountingProvider provider = new CountingProvider();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(provider);
+        assertNull(pool.optGet("missing/A"));
+        assertNull(pool.optGet("missing/A"));
+        assertEquals(2, provider.invocations.get());
+    }
+
+    @Test
+    public void testMissingClassesAreRemembered() {
+        CountingProvider provider = new CountingProvider();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(provider);
+        pool.setMissTimeout(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        assertNull(pool.optGet("missing/A"));
+        assertNull(pool.optGet("missing/A"));
+        assertEquals(1, provider.invocations.get());
+
+        CountingProvider secondProvider = new CountingProvider();
+        pool.addProvider(secondProvider);
+        assertNull(pool.optGet("missing/A"));
+        assertEquals(2, provider.invocations.get());
+        assertEquals(1, secondProvider.invocations.get());
+
+        pool.setMissTimeout(0, TimeUnit.SECONDS);
+        assertNull(pool.optGet("missing/A"));
+        assertEquals(3, provider.invocations.get());
+    }
+
+    @Test
+    public void testReflectionProviderMiss() {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ReflectionClassWrapperProvider(ClassWrapperPoolTest.class.getClassLoader()));
+        assertNull(pool.optGet("missing/A"));
+        assertEquals("java/lang/Number", pool.get("java/lang/Integer").getSuper());
+    }
+
+    @Test
+    public void testUnresolvableClass() {
+        CountingProvider provider = new CountingProvider();
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(provider);
+        assertNull(pool.optGet("missing/A"));
+        assertTrue(provider.invocations.get() > 0);
+    }
+}
@@ -0,0 +1,73 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapper;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+import org.stianloader.micromixin.transform.supertypes.HierarchyIndex;
+import org.stianloader.micromixin.transform.supertypes.HierarchyIndexClassWrapperProvider;
+
+public class HierarchyIndexTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        HierarchyIndex.Source first = new HierarchyIndex.Source("first.jar", 42L, 1234L, 5678L, Arrays.asList(
+                new HierarchyIndex.Entry("test/I", "java/lang/Object", new String[0], true),
+                new HierarchyIndex.Entry("test/A", "java/lang/Object", new String[] {"test/I"}, false),
+                new HierarchyIndex.Entry("test/\u00e4\u00f6\u00fc", "test/A", new String[0], false)));
+        HierarchyIndex.Source second = new HierarchyIndex.Source("second.jar", -1L, Arrays.asList(
+                new HierarchyIndex.Entry("test/A", "test/Shadowed", new String[0], false),
+                new HierarchyIndex.Entry("test/B", "test/A", new String[] {"test/I", "test/J"}, false)));
+
+        File file = File.createTempFile("hierarchy", ".idx");
+        try {
+            HierarchyIndex.write(file, Arrays.asList(first, second));
+            HierarchyIndex index = HierarchyIndex.open(file);
+            assertEquals(4, index.getClassCount());
+
+            ClassWrapperPool pool = new ClassWrapperPool().addProvider(new HierarchyIndexClassWrapperProvider(index));
+            ClassWrapper a = pool.get("test/A");
+            assertEquals("java/lang/Object", a.getSuper());
+            assertArrayEquals(new String[] {"test/I"}, a.getSuperInterfacesName());
+            assertFalse(a.isInterface());
+            assertTrue(pool.get("test/I").isInterface());
+            assertEquals("test/A", pool.get("test/\u00e4\u00f6\u00fc").getSuper());
+            assertArrayEquals(new String[] {"test/I", "test/J"}, pool.get("test/B").getSuperInterfacesName());
+            assertNull(pool.optGet("test/J"));
+            assertNull(pool.optGet("test/Shadowed"));
+
+            List<HierarchyIndex.Source> sources = index.readSources();
+            assertEquals(2, sources.size());
+            assertEquals("first.jar", sources.get(0).getName());
+            assertEquals(42L, sources.get(0).getChecksum());
+            assertEquals(1234L, sources.get(0).getSize());
+            assertEquals(5678L, sources.get(0).getLastModified());
+            assertEquals(-1L, sources.get(1).getLastModified());
+            assertEquals(3, sources.get(0).getEntries().size());
+            assertEquals(-1L, sources.get(1).getChecksum());
+            assertEquals("test/Shadowed", sources.get(1).getEntries().get(0).getSuperName());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidIndex() throws IOException {
+        File file = File.createTempFile("hierarchy", ".idx");
+        try {
+            HierarchyIndex.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.api.MixinMetrics;
+import org.stianloader.micromixin.transform.api.MixinMetrics.Phase;
+import org.stianloader.micromixin.transform.api.MixinMetrics.TimerSnapshot;
+import org.stianloader.micromixin.transform.api.MixinMetricsMXBean;
+import org.stianloader.micromixin.test.TestClasses.MapBytecodeProvider;
+
+public class MixinMetricsTest {
+
+    @Test
+    public void testPhaseRecording() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        MixinMetrics metrics = new MixinMetrics();
+        transformer.setMetrics(metrics);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+        ClassNode target = TestClasses.target("test/TargetA", 1);
+        transformer.transform(target);
+        assertEquals(2, TestClasses.getReturnedConstant(target));
+
+        assertEquals(1, metrics.getTotal(Phase.CONFIG_PARSE).getCount());
+        assertEquals(1, metrics.getTimers(Phase.STUB_PARSE).get("test/mixin/MixinA").getCount());
+        assertEquals(1, metrics.getTimers(Phase.TARGET_TRANSFORM).get("test/TargetA").getCount());
+        assertEquals(1, metrics.getTimers(Phase.STUB_APPLY).get("test/mixin/MixinA").getCount());
+        assertTrue(metrics.getTotal(Phase.ANNOTATION_APPLY).getCount() > 0);
+
+        metrics.reset();
+        assertEquals(0, metrics.getTotal(Phase.TARGET_TRANSFORM).getCount());
+        assertTrue(metrics.getTimers(Phase.TARGET_TRANSFORM).isEmpty());
+    }
+
+    @Test
+    public void testHistogram() {
+        MixinMetrics metrics = new MixinMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(Phase.TARGET_TRANSFORM, "test/A", 100);
+        }
+        metrics.record(Phase.TARGET_TRANSFORM, "test/B", 5000);
+        TimerSnapshot total = metrics.getTotal(Phase.TARGET_TRANSFORM);
+        assertEquals(100, total.getCount());
+        assertEquals(99 * 100 + 5000, total.getTotalNanos());
+        assertEquals(5000, total.getMaxNanos());
+        assertEquals(99, total.getBuckets()[7]);
+        assertEquals(127, total.getPercentileNanos(0.5));
+        assertEquals(5000, total.getPercentileNanos(1));
+    }
+
+    @Test
+    public void testKeyTimersAreBounded() {
+        MixinMetrics metrics = new MixinMetrics();
+        int keys = MixinMetrics.MAX_KEYS_PER_PHASE + 100;
+        for (int i = 0; i < keys; i++) {
+            metrics.record(Phase.TARGET_TRANSFORM, "test/C" + i, 100);
+        }
+        metrics.record(Phase.TARGET_TRANSFORM, "test/C0", 100);
+        Map<String, TimerSnapshot> timers = metrics.getTimers(Phase.TARGET_TRANSFORM);
+        assertEquals(MixinMetrics.MAX_KEYS_PER_PHASE + 1, timers.size());
+        assertEquals(2, timers.get("test/C0").getCount());
+        assertEquals(100, timers.get(MixinMetrics.OVERFLOW_KEY).getCount());
+        assertEquals(0, timers.get("test/C0").getBuckets().length);
+        assertEquals(keys + 1, metrics.getTotal(Phase.TARGET_TRANSFORM).getCount());
+    }
+
+    @Test
+    public void testMBean() throws JMException {
+        MixinMetrics metrics = new MixinMetrics();
+        metrics.record(Phase.STUB_APPLY, "test/mixin/MixinA", 1000);
+        metrics.recordPoolHit();
+        ObjectName name = metrics.registerMBean("org.stianloader.micromixin:type=MixinMetrics,name=test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "PoolHits"));
+            Object nanos = server.invoke(name, "getNanosByKey", new Object[] {"STUB_APPLY"}, new String[] {String.class.getName()});
+            assertTrue(nanos instanceof TabularData);
+            Map<String, Long> view = JMX.newMXBeanProxy(server, name, MixinMetricsMXBean.class).getNanosByKey("STUB_APPLY");
+            assertEquals(Long.valueOf(1000L), view.get("test/mixin/MixinA"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.test.TestClasses.MapBytecodeProvider;
+
+public class MixinRegistrationTest {
+
+    @Test
+    public void testParallelRegistration() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        provider.classes.put("test/mixin/MixinB", TestClasses.write(TestClasses.mixin("test/mixin/MixinB", 3, "test/TargetB")));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\", \"MixinB\"]}"), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        ClassNode targetA = TestClasses.target("test/TargetA", 1);
+        ClassNode targetB = TestClasses.target("test/TargetB", 1);
+        transformer.transform(targetA);
+        transformer.transform(targetB);
+        assertEquals(2, TestClasses.getReturnedConstant(targetA));
+        assertEquals(3, TestClasses.getReturnedConstant(targetB));
+    }
+
+    @Test
+    public void testParallelRegistrationFailure() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"Missing\"]}"), executor);
+            fail("Registering a missing mixin should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof ClassNotFoundException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLazyRegistration() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        ClassNode brokenMixin = TestClasses.mixin("test/mixin/MixinB", 3, "test/TargetB");
+        brokenMixin.methods.get(0).visitAnnotation("Lorg/spongepowered/asm/mixin/Nonexistent;", true);
+        provider.classes.put("test/mixin/MixinB", TestClasses.write(brokenMixin));
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.setParseMixinsLazily(true);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\", \"MixinB\"]}"));
+        assertEquals(0, provider.nodeRequests.get());
+        assertTrue(transformer.isMixinTarget("test/TargetA"));
+        assertTrue(transformer.isMixinTarget("test/TargetB"));
+
+        ClassNode targetA = TestClasses.target("test/TargetA", 1);
+        transformer.transform(targetA);
+        assertEquals(2, TestClasses.getReturnedConstant(targetA));
+        assertEquals(1, provider.nodeRequests.get());
+        transformer.transform(TestClasses.target("test/TargetA", 1));
+        assertEquals(1, provider.nodeRequests.get());
+
+        try {
+            transformer.transform(TestClasses.target("test/TargetB", 1));
+            fail("Applying a broken mixin should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("Broken mixin: test/mixin/MixinB"));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.stianloader.micromixin.test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.RawBytecodeProvider;
+import org.stianloader.micromixin.transform.supertypes.ASMClassWrapperProvider;
+import org.stianloader.micromixin.transform.supertypes.ClassWrapperPool;
+
+/**
+ * Generates minimal targets and mixins for transformer tests without requiring
+ * the annotations to be on the classpath.
+ */
+final class TestClasses {
+
+    static final class MapBytecodeProvider implements RawBytecodeProvider<Void> {
+        final Map<String, byte[]> classes = new HashMap<String, byte[]>();
+        final AtomicInteger nodeRequests = new AtomicInteger();
+
+        @Override
+        @NotNull
+        public byte[] getClassBytes(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+            byte[] bytes = this.classes.get(internalName);
+            if (bytes == null) {
+                throw new ClassNotFoundException(internalName);
+            }
+            return bytes;
+        }
+
+        @Override
+        @NotNull
+        public ClassNode getClassNode(Void modularityAttachment, @NotNull String internalName) throws ClassNotFoundException {
+            this.nodeRequests.incrementAndGet();
+            ClassNode node = new ClassNode();
+            new ClassReader(this.getClassBytes(modularityAttachment, internalName)).accept(node, 0);
+            return node;
+        }
+    }
+
+    /**
+     * Creates a class with a single method "value()I" that returns the given constant.
+     */
+    @NotNull
+    static ClassNode target(@NotNull String name, int value) {
+        ClassNode node = new ClassNode();
+        node.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "value", "()I", null, null);
+        method.instructions.add(new InsnNode(Opcodes.ICONST_0 + value));
+        method.instructions.add(new InsnNode(Opcodes.IRETURN));
+        method.maxStack = 1;
+        method.maxLocals = 1;
+        node.methods.add(method);
+        return node;
+    }
+
+    /**
+     * Creates a mixin that implicitly overwrites "value()I" of all targets to return the given constant.
+     */
+    @NotNull
+    static ClassNode mixin(@NotNull String name, int value, @NotNull String... targets) {
+        ClassNode node = TestClasses.target(name, value);
+        AnnotationNode mixinAnnotation = new AnnotationNode("Lorg/spongepowered/asm/mixin/Mixin;");
+        mixinAnnotation.visit("targets", Arrays.asList(targets));
+        node.invisibleAnnotations = Arrays.asList(mixinAnnotation);
+        return node;
+    }
+
+    @NotNull
+    static byte[] write(@NotNull ClassNode node) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+
+    static int getReturnedConstant(@NotNull ClassNode node) {
+        for (MethodNode method : node.methods) {
+            if (method.name.equals("value")) {
+                for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                    if (insn.getOpcode() >= Opcodes.ICONST_0 && insn.getOpcode() <= Opcodes.ICONST_5) {
+                        return insn.getOpcode() - Opcodes.ICONST_0;
+                    }
+                }
+            }
+        }
+        throw new AssertionError("No constant returned by " + node.name);
+    }
+
+    static int getReturnedConstant(@NotNull byte[] bytes) {
+        ClassNode node = new ClassNode();
+        new ClassReader(bytes).accept(node, 0);
+        return TestClasses.getReturnedConstant(node);
+    }
+
+    @NotNull
+    static MixinTransformer<Void> transformer(@NotNull final MapBytecodeProvider provider) {
+        ClassWrapperPool pool = new ClassWrapperPool().addProvider(new ASMClassWrapperProvider() {
+            @Override
+            public ClassNode getNode(@NotNull String name) {
+                try {
+                    return provider.getClassNode(null, name);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            }
+        });
+        return new MixinTransformer<Void>(provider, pool);
+    }
+
+    private TestClasses() {
+        throw new AssertionError();
+    }
+}
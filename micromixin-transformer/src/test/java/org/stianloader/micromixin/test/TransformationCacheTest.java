@@ -0,0 +1,138 @@
+package org.stianloader.micromixin.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stianloader.micromixin.transform.MixinConfig;
+import org.stianloader.micromixin.transform.MixinConfig.InvalidMixinConfigException;
+import org.stianloader.micromixin.transform.MixinTransformer;
+import org.stianloader.micromixin.transform.api.DiskTransformationCache;
+import org.stianloader.micromixin.transform.api.TransformationCache;
+import org.stianloader.micromixin.test.TestClasses.MapBytecodeProvider;
+
+public class TransformationCacheTest {
+
+    private static class MapTransformationCache implements TransformationCache {
+        private final Map<ByteBuffer, byte[]> entries = new HashMap<ByteBuffer, byte[]>();
+
+        @Override
+        @Nullable
+        public byte[] get(@NotNull byte[] key) {
+            return this.entries.get(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public void put(@NotNull byte[] key, @NotNull byte[] value) {
+            this.entries.put(ByteBuffer.wrap(key), value);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTransformerCacheHit() throws InvalidMixinConfigException {
+        MapBytecodeProvider provider = new MapBytecodeProvider();
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 2, "test/TargetA")));
+        MapTransformationCache cache = new MapTransformationCache();
+        byte[] target = TestClasses.write(TestClasses.target("test/TargetA", 1));
+
+        MixinTransformer<Void> transformer = TestClasses.transformer(provider);
+        transformer.setTransformationCache(cache);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+        byte[] transformed = transformer.transform(null, "test/TargetA", target);
+        assertEquals(2, TestClasses.getReturnedConstant(transformed));
+        assertEquals(1, cache.entries.size());
+
+        // A fresh, lazily parsing transformer should not need to parse the mixin on a cache hit
+        provider.nodeRequests.set(0);
+        transformer = TestClasses.transformer(provider);
+        transformer.setParseMixinsLazily(true);
+        transformer.setTransformationCache(cache);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+        assertSame(transformed, transformer.transform(null, "test/TargetA", target));
+        assertEquals(0, provider.nodeRequests.get());
+
+        // Changing the mixin changes the key
+        provider.classes.put("test/mixin/MixinA", TestClasses.write(TestClasses.mixin("test/mixin/MixinA", 3, "test/TargetA")));
+        transformer = TestClasses.transformer(provider);
+        transformer.setTransformationCache(cache);
+        transformer.addMixin(null, MixinConfig.fromString("{\"package\": \"test.mixin\", \"mixins\": [\"MixinA\"]}"));
+        assertEquals(3, TestClasses.getReturnedConstant(transformer.transform(null, "test/TargetA", target)));
+        assertEquals(2, cache.entries.size());
+    }
+
+    @Test
+    public void testDiskCache() throws IOException {
+        File directory = this.folder.newFolder("cache");
+        DiskTransformationCache cache = new DiskTransformationCache(directory, 1 << 20);
+        byte[] key = new byte[] {1, 2, 3};
+        byte[] value = new byte[] {4, 5, 6, 7};
+        assertNull(cache.get(key));
+        cache.put(key, value);
+        assertArrayEquals(value, cache.get(key));
+
+        // Entries survive reopening
+        cache = new DiskTransformationCache(directory, 1 << 20);
+        assertArrayEquals(value, cache.get(key));
+        assertEquals(new File(directory, "010203.mmtc").length(), cache.getSize());
+    }
+
+    @Test
+    public void testDiskCacheCorruption() throws IOException {
+        File directory = this.folder.newFolder("cache");
+        DiskTransformationCache cache = new DiskTransformationCache(directory, 1 << 20);
+        byte[] key = new byte[] {1, 2, 3};
+        cache.put(key, new byte[] {4, 5, 6, 7});
+
+        File entry = new File(directory, "010203.mmtc");
+        RandomAccessFile raf = new RandomAccessFile(entry, "rw");
+        try {
+            raf.seek(raf.length() - 1);
+            raf.write(0);
+        } finally {
+            raf.close();
+        }
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getSize());
+        assertFalse(entry.exists());
+        // The corrupted file is renamed aside before being deleted, which must not leave any files behind
+        assertEquals(0, directory.list().length);
+
+        cache.put(key, new byte[] {4, 5, 6, 7});
+        assertArrayEquals(new byte[] {4, 5, 6, 7}, cache.get(key));
+    }
+
+    @Test
+    public void testDiskCacheEviction() throws IOException {
+        File directory = this.folder.newFolder("cache");
+        // Each entry takes up 100 bytes including the header
+        DiskTransformationCache cache = new DiskTransformationCache(directory, 250);
+        byte[] value = new byte[56];
+        cache.put(new byte[] {1}, value);
+        cache.put(new byte[] {2}, value);
+        assertNotNull(cache.get(new byte[] {1}));
+        cache.put(new byte[] {3}, value);
+        // Entry 2 is the least recently used entry
+        assertNull(cache.get(new byte[] {2}));
+        assertNotNull(cache.get(new byte[] {1}));
+        assertNotNull(cache.get(new byte[] {3}));
+        assertEquals(200, cache.getSize());
+    }
+}